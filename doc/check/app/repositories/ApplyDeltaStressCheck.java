@@ -0,0 +1,165 @@
+package app.repositories;
+
+import app.models.Account;
+import app.models.Client;
+import app.models.Enums.AccountType;
+import app.utils.DatabaseConnection;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vérification concurrente de AccountRepository.applyDelta sur une base réelle (bank_db).
+ *
+ * 1. Mises à jour perdues : THREADS threads appliquent des dépôts et retraits aléatoires sur
+ *    un même compte ; solde final = solde initial + somme des mouvements acceptés.
+ * 2. Découvert : THREADS retraits simultanés de 30 sur un compte à 100 ; exactement 3 passent,
+ *    aucun solde renvoyé n'est négatif, solde final 10.
+ *
+ * Crée son propre client et ses comptes, les supprime à la fin.
+ * Code de sortie 0 si tout est correct, 1 sinon.
+ *
+ * Exécution (depuis doc/, driver PostgreSQL dans le classpath) :
+ *   javac -d /tmp/check $(find src check -name '*.java')
+ *   java -cp /tmp/check:postgresql.jar app.repositories.ApplyDeltaStressCheck
+ */
+public class ApplyDeltaStressCheck {
+
+    // Inférieur à la taille du pool (DatabaseConnection) : les threads ne s'attendent que sur la ligne
+    private static final int THREADS = 8;
+    private static final int MOUVEMENTS_PAR_THREAD = 500;
+
+    private static final AccountRepository accounts = new AccountRepository();
+
+    public static void main(String[] args) throws Exception {
+        List<String> erreurs = new ArrayList<>();
+        Client client = new Client(0L, "Stress", "ApplyDelta", "apply-delta-" + System.nanoTime() + "@check.local",
+                "0000000000", BigDecimal.ZERO);
+        new ClientRepository().save(client);
+        List<Long> comptes = new ArrayList<>();
+        try {
+            checkMisesAJourPerdues(client.getId(), comptes, erreurs);
+            checkDecouvert(client.getId(), comptes, erreurs);
+        } finally {
+            cleanup(client.getId(), comptes);
+            DatabaseConnection.closeConnection();
+        }
+
+        if (erreurs.isEmpty()) {
+            System.out.println("applyDelta : OK");
+            return;
+        }
+        erreurs.forEach(e -> System.err.println("applyDelta : " + e));
+        System.exit(1);
+    }
+
+    private static void checkMisesAJourPerdues(long clientId, List<Long> comptes, List<String> erreurs) throws Exception {
+        BigDecimal initial = new BigDecimal("1000.00");
+        long accountId = createAccount(clientId, initial, comptes);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> resultats = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            resultats.add(executor.submit(() -> {
+                // [somme des mouvements acceptés en centimes, soldes négatifs observés]
+                long[] r = new long[2];
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < MOUVEMENTS_PAR_THREAD; i++) {
+                    long centimes = random.nextLong(-5_000, 5_001);
+                    BigDecimal solde = accounts.applyDelta(accountId, BigDecimal.valueOf(centimes, 2));
+                    if (solde != null) {
+                        r[0] += centimes;
+                        if (solde.signum() < 0) {
+                            r[1]++;
+                        }
+                    }
+                }
+                return r;
+            }));
+        }
+        long somme = 0;
+        long negatifs = 0;
+        for (Future<long[]> f : resultats) {
+            long[] r = f.get();
+            somme += r[0];
+            negatifs += r[1];
+        }
+        executor.shutdown();
+
+        BigDecimal attendu = initial.add(BigDecimal.valueOf(somme, 2));
+        BigDecimal finalSolde = accounts.findById(accountId).getSolde();
+        if (finalSolde.compareTo(attendu) != 0) {
+            erreurs.add("mise à jour perdue : solde " + finalSolde + ", attendu " + attendu);
+        }
+        if (negatifs > 0 || finalSolde.signum() < 0) {
+            erreurs.add("solde négatif observé (" + negatifs + " fois, final " + finalSolde + ")");
+        }
+        System.out.println("Mouvements concurrents : " + THREADS * MOUVEMENTS_PAR_THREAD + ", solde final " + finalSolde
+                + " (attendu " + attendu + ")");
+    }
+
+    private static void checkDecouvert(long clientId, List<Long> comptes, List<String> erreurs) throws Exception {
+        long accountId = createAccount(clientId, new BigDecimal("100.00"), comptes);
+        BigDecimal retrait = new BigDecimal("-30.00");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger acceptes = new AtomicInteger();
+        AtomicInteger negatifs = new AtomicInteger();
+        List<Future<?>> retraits = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            retraits.add(executor.submit(() -> {
+                BigDecimal solde = accounts.applyDelta(accountId, retrait);
+                if (solde != null) {
+                    acceptes.incrementAndGet();
+                    if (solde.signum() < 0) {
+                        negatifs.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : retraits) {
+            f.get();
+        }
+        executor.shutdown();
+
+        BigDecimal finalSolde = accounts.findById(accountId).getSolde();
+        if (acceptes.get() != 3 || negatifs.get() > 0 || finalSolde.compareTo(new BigDecimal("10.00")) != 0) {
+            erreurs.add("découvert : " + acceptes.get() + " retraits acceptés (attendu 3), solde final " + finalSolde
+                    + " (attendu 10.00)");
+        }
+        System.out.println("Retraits simultanés : " + acceptes.get() + "/" + THREADS + " acceptés, solde final " + finalSolde);
+    }
+
+    private static long createAccount(long clientId, BigDecimal solde, List<Long> comptes) {
+        Account account = new Account(0L, solde, clientId, AccountType.COURANT);
+        accounts.save(account);
+        comptes.add(account.getId());
+        return account.getId();
+    }
+
+    private static void cleanup(long clientId, List<Long> comptes) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM account WHERE id = ?")) {
+                for (Long id : comptes) {
+                    stmt.setLong(1, id);
+                    stmt.executeUpdate();
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM client WHERE id = ?")) {
+                stmt.setLong(1, clientId);
+                stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            System.err.println("Nettoyage client " + clientId + " : " + e.getMessage());
+        }
+    }
+}
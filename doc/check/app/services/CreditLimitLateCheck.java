@@ -0,0 +1,121 @@
+package app.services;
+
+import app.models.Account;
+import app.models.Client;
+import app.models.Enums.AccountType;
+import app.models.Enums.CreditStatus;
+import app.models.Enums.CreditType;
+import app.repositories.AccountRepository;
+import app.repositories.ClientRepository;
+import app.repositories.CountedCreditRepository;
+import app.repositories.CreditRepository;
+import app.utils.DatabaseConnection;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumSet;
+
+/**
+ * Vérification de la limite de 2 crédits en cours de TellerService.requestCredit sur une base
+ * réelle (bank_db) : un compte avec 2 crédits LATE (passés en retard par OverdueScannerService)
+ * doit être refusé comme un compte avec 2 crédits ACTIVE.
+ *
+ * Crée son propre client, son compte et ses 2 crédits LATE (créés par le premier utilisateur
+ * Treller de la table users), les supprime à la fin.
+ * Code de sortie 0 si la demande est refusée par la limite, 1 sinon.
+ *
+ * Exécution (depuis doc/, driver PostgreSQL dans le classpath) :
+ *   javac -d /tmp/check $(find src check -name '*.java')
+ *   java -cp /tmp/check:postgresql.jar app.services.CreditLimitLateCheck
+ */
+public class CreditLimitLateCheck {
+
+    private static final String TRELLER_SQL = "SELECT id FROM users WHERE role = 'Treller' ORDER BY id LIMIT 1";
+    private static final String INSERT_LATE_SQL = "INSERT INTO credit (account_id, creeby_id, status, montantinitial, taux, duremois) " +
+            "VALUES (?, ?, 'LATE'::credit_status, 1000, 5, 12)";
+
+    public static void main(String[] args) {
+        Client client = new Client(0L, "Check", "CreditLate", "credit-late-" + System.nanoTime() + "@check.local",
+                "0000000000", new BigDecimal("3000.00"));
+        new ClientRepository().save(client);
+        Account account = new Account(0L, new BigDecimal("100.00"), client.getId(), AccountType.COURANT);
+        new AccountRepository().save(account);
+
+        boolean ok;
+        try {
+            insertLateCredits(account.getId(), 2);
+
+            int enCours = new CountedCreditRepository(new CreditRepository())
+                    .countByAccountIdAndStatuses(account.getId(), EnumSet.of(CreditStatus.ACTIVE, CreditStatus.LATE));
+            System.out.println("Crédits en cours (ACTIVE + LATE) : " + enCours);
+
+            ok = enCours == 2;
+            try {
+                new TellerService().requestCredit(account.getId(), new BigDecimal("500.00"), new BigDecimal("5.00"),
+                        12, CreditType.CONSTANT);
+                System.err.println("Demande acceptée malgré 2 crédits LATE");
+                ok = false;
+            } catch (RuntimeException e) {
+                // La limite est vérifiée avant la session : un autre refus signale une autre cause
+                boolean parLimite = e.getMessage() != null && e.getMessage().contains("credit en cour");
+                System.out.println("Demande refusée : " + e.getMessage());
+                ok &= parLimite;
+            }
+        } finally {
+            cleanup(client.getId(), account.getId());
+            DatabaseConnection.closeConnection();
+        }
+
+        if (ok) {
+            System.out.println("Limite de crédits avec LATE : OK");
+            return;
+        }
+        System.exit(1);
+    }
+
+    private static void insertLateCredits(long accountId, int nb) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            long trellerId;
+            try (PreparedStatement stmt = conn.prepareStatement(TRELLER_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalStateException("Aucun utilisateur Treller dans users : impossible de créer les crédits");
+                }
+                trellerId = rs.getLong(1);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_LATE_SQL)) {
+                for (int i = 0; i < nb; i++) {
+                    stmt.setLong(1, accountId);
+                    stmt.setLong(2, trellerId);
+                    stmt.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur création des crédits LATE : " + e.getMessage(), e);
+        }
+    }
+
+    private static void cleanup(long clientId, long accountId) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // Crédits d'abord : le trigger décrémente credit_status_count
+            for (String sql : new String[] {
+                    "DELETE FROM transaction WHERE \"accountId\" = ?",
+                    "DELETE FROM credit WHERE account_id = ?",
+                    "DELETE FROM account WHERE id = ?"}) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setLong(1, accountId);
+                    stmt.executeUpdate();
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM client WHERE id = ?")) {
+                stmt.setLong(1, clientId);
+                stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            System.err.println("Nettoyage client " + clientId + " : " + e.getMessage());
+        }
+    }
+}
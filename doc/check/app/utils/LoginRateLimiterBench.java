@@ -0,0 +1,104 @@
+package app.utils;
+
+/**
+ * Mesure du coût de LoginRateLimiter.tryAcquire, sans base de données.
+ *
+ * Chauffe JIT préalable sur un limiteur jetable (tous les chemins), puis :
+ * 1. Connexion permise, sur un limiteur où CLES couples (email, source) ont déjà une tentative :
+ *    - clé connue : tentatives suivantes des mêmes couples (seaux existants)
+ *    - nouvelle clé : première tentative d'un couple (2 seaux créés dans la map)
+ *    Map assez grande pour ne jamais déborder.
+ * 2. Débordement : maps pleines de seaux non pleins (aucune purge utile), chaque appel avec
+ *    un nouvel email et une nouvelle source passe par le seau de débordement : cas d'un flot
+ *    de tentatives aléatoires. Au plus une purge (parcours de la map) pendant la mesure.
+ *
+ * Exécution (depuis doc/) :
+ *   javac -d /tmp/check $(find src check -name '*.java')
+ *   java -cp /tmp/check app.utils.LoginRateLimiterBench
+ */
+public class LoginRateLimiterBench {
+
+    // Limites par défaut de LoginRateLimiter.getInstance()
+    private static final int EMAIL_CAPACITE = 5;
+    private static final long EMAIL_RECHARGE_MS = 12_000;
+    private static final int SOURCE_CAPACITE = 20;
+    private static final long SOURCE_RECHARGE_MS = 3_000;
+
+    private static final int CLES = 100_000;
+    private static final int MESURES = 200_000;
+    private static final int CHAUFFE_PASSES = 5;
+    private static final int MAX_CLES_DEBORDEMENT = CLES;
+
+    public static void main(String[] args) {
+        String[] emails = new String[CLES + MESURES];
+        String[] sources = new String[CLES + MESURES];
+        for (int i = 0; i < emails.length; i++) {
+            emails[i] = "client" + i + "@banque.fr";
+            sources[i] = "10." + (i >>> 16) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF);
+        }
+
+        chauffe(emails, sources);
+
+        // 1. Connexions permises, sur une map de taille stable
+        LoginRateLimiter limiter = new LoginRateLimiter(EMAIL_CAPACITE, EMAIL_RECHARGE_MS,
+                SOURCE_CAPACITE, SOURCE_RECHARGE_MS, emails.length + 1);
+        // Création des seaux (1re tentative de chaque clé)
+        for (int i = 0; i < CLES; i++) {
+            check(limiter.tryAcquire(emails[i], sources[i]));
+        }
+        // Clé déjà connue : cas courant (tentatives suivantes d'un client, même poste)
+        long debut = System.nanoTime();
+        for (int tour = 1; tour < EMAIL_CAPACITE; tour++) {
+            for (int i = 0; i < CLES; i++) {
+                check(limiter.tryAcquire(emails[i], sources[i]));
+            }
+        }
+        double nsConnue = (double) (System.nanoTime() - debut) / (CLES * (EMAIL_CAPACITE - 1));
+        System.out.printf("Connexion permise, clé connue : %.0f ns par tryAcquire (%d appels)%n",
+                nsConnue, CLES * (EMAIL_CAPACITE - 1));
+        // Nouvelle clé : création des 2 seaux dans la map
+        debut = System.nanoTime();
+        for (int i = CLES; i < emails.length; i++) {
+            check(limiter.tryAcquire(emails[i], sources[i]));
+        }
+        double nsNouvelle = (double) (System.nanoTime() - debut) / MESURES;
+        System.out.printf("Connexion permise, nouvelle clé : %.0f ns par tryAcquire (%d appels)%n", nsNouvelle, MESURES);
+
+        // 2. Débordement : maps pleines (limite par défaut), nouvelles clés à chaque appel
+        LoginRateLimiter plein = new LoginRateLimiter(EMAIL_CAPACITE, EMAIL_RECHARGE_MS,
+                SOURCE_CAPACITE, SOURCE_RECHARGE_MS, MAX_CLES_DEBORDEMENT);
+        for (int i = 0; i < MAX_CLES_DEBORDEMENT; i++) {
+            check(plein.tryAcquire(emails[i], sources[i]));
+        }
+        int suivants = emails.length - MAX_CLES_DEBORDEMENT;
+        debut = System.nanoTime();
+        for (int i = MAX_CLES_DEBORDEMENT; i < emails.length; i++) {
+            plein.tryAcquire(emails[i], sources[i]);
+        }
+        double nsDebordement = (double) (System.nanoTime() - debut) / suivants;
+        System.out.printf("Débordement (map pleine, %d clés) : %.0f ns par tryAcquire (%d appels, %d débordements)%n",
+                MAX_CLES_DEBORDEMENT, nsDebordement, suivants, plein.getDebordements());
+    }
+
+    /**
+     * Chauffe JIT sur un limiteur jetable : tous les chemins (création, clé connue, refus,
+     * débordement) exécutés assez souvent pour être compilés avant les mesures.
+     */
+    private static void chauffe(String[] emails, String[] sources) {
+        for (int passe = 0; passe < CHAUFFE_PASSES; passe++) {
+            LoginRateLimiter jetable = new LoginRateLimiter(EMAIL_CAPACITE, EMAIL_RECHARGE_MS,
+                    SOURCE_CAPACITE, SOURCE_RECHARGE_MS, CLES / 2);
+            for (int tour = 0; tour <= EMAIL_CAPACITE; tour++) {
+                for (int i = 0; i < CLES; i++) {
+                    jetable.tryAcquire(emails[i], sources[i]);
+                }
+            }
+        }
+    }
+
+    private static void check(boolean permise) {
+        if (!permise) {
+            throw new IllegalStateException("Tentative refusée : la mesure du chemin permis n'a pas de sens");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package app.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mesure du coût de PasswordHasher.verify : durée par vérification et connexions/s par cœur,
+ * puis débit avec un thread par cœur (ce que PasswordVerifier peut absorber).
+ * Sans base de données.
+ *
+ * Exécution (depuis doc/) :
+ *   javac -d /tmp/check $(find src check -name '*.java')
+ *   java -cp /tmp/check app.utils.PasswordHasherBench [itérations]
+ */
+public class PasswordHasherBench {
+
+    private static final int CHAUFFE = 5;
+    private static final int MESURES = 30;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : PasswordHasher.DEFAULT_ITERATIONS;
+        PasswordHasher hasher = new PasswordHasher(iterations);
+        String stored = hasher.hash("mot-de-passe-de-test");
+
+        // Chauffe : compilation JIT de la boucle HMAC avant la mesure
+        for (int i = 0; i < CHAUFFE; i++) {
+            check(hasher.verify("mot-de-passe-de-test", stored));
+        }
+
+        long debut = System.nanoTime();
+        for (int i = 0; i < MESURES; i++) {
+            check(hasher.verify("mot-de-passe-de-test", stored));
+        }
+        double msParVerification = (System.nanoTime() - debut) / 1e6 / MESURES;
+        System.out.printf("PBKDF2-HMAC-SHA256, %d itérations : %.1f ms par vérification, %.1f connexions/s par cœur%n",
+                iterations, msParVerification, 1000 / msParVerification);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            debut = System.nanoTime();
+            List<Future<?>> taches = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                taches.add(executor.submit(() -> {
+                    for (int i = 0; i < MESURES; i++) {
+                        check(hasher.verify("mot-de-passe-de-test", stored));
+                    }
+                }));
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+            double secondes = (System.nanoTime() - debut) / 1e9;
+            System.out.printf("%d threads : %.1f connexions/s au total%n", threads, threads * MESURES / secondes);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void check(boolean valide) {
+        if (!valide) {
+            throw new IllegalStateException("Vérification échouée : la mesure n'a pas de sens");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- Pagination par clé (keyset) de l'historique des transactions
+-- Sert TransactionRepository.findByAccountId(accountId, afterCursor, limit) :
+--   WHERE "accountId" = ? AND (datetransaction, id) < (?, ?)
+--   ORDER BY datetransaction DESC, id DESC LIMIT ?
+-- Chaque page est un simple parcours d'index à partir du curseur :
+-- coût constant quelle que soit la profondeur (contrairement à OFFSET).
+-- Sert aussi findByAccountId(accountId) et le streaming (tri déjà fourni par l'index).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transaction_account_date_id
+    ON transaction ("accountId", datetransaction DESC, id DESC);
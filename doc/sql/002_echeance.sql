@@ -0,0 +1,15 @@
+-- Échéancier des crédits (EcheanceRepository)
+-- Une ligne par mensualité : capital + intérêts (+ pénalité si retard).
+
+CREATE TABLE IF NOT EXISTS echeance (
+    id               bigserial PRIMARY KEY,
+    credit_id        bigint        NOT NULL REFERENCES credit (id),
+    numero           integer       NOT NULL,
+    dateprevue       date          NOT NULL,
+    montantprincipal numeric(18,2) NOT NULL,
+    interet          numeric(18,2) NOT NULL,
+    penalite         numeric(18,2) NOT NULL DEFAULT 0,
+    payee            boolean       NOT NULL DEFAULT false,
+    datepaiement     date,
+    CONSTRAINT uq_echeance_credit_numero UNIQUE (credit_id, numero)
+);
@@ -0,0 +1,7 @@
+-- Index partiel des échéances non payées (OverdueScannerService, EcheanceRepository)
+-- findOverdueBefore / findUpcomingBetween filtrent sur payee = false puis sur dateprevue :
+-- l'index ne contient que les lignes ouvertes et reste petit quand l'historique payé grossit.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_echeance_unpaid_dateprevue
+    ON echeance (dateprevue, id)
+    WHERE payee = false;
@@ -0,0 +1,5 @@
+-- Date métier du dernier calcul de pénalité (PenaliteAccrualJob)
+-- La pénalité est recalculée en valeur absolue pour cette date : rejouer le job
+-- pour la même date ne touche plus aucune ligne.
+
+ALTER TABLE echeance ADD COLUMN IF NOT EXISTS penalite_date date;
@@ -0,0 +1,47 @@
+-- Compteurs de crédits par compte et par statut (CountedCreditRepository)
+-- La règle "au plus 2 crédits en cours (ACTIVE ou LATE) par compte" devient une lecture par clé primaire,
+-- quelle que soit la longueur de l'historique de crédits du compte.
+-- Les compteurs sont tenus par trigger : toute transition de statut (TELLER, Manager,
+-- OverdueScannerService, SQL manuel) les met à jour dans la même transaction.
+
+-- Index partiel pour CreditRepository.countByAccountIdAndStatus (chemin sans compteur)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_credit_account_status
+    ON credit (account_id, status)
+    WHERE deleted_at IS NULL;
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS credit_status_count (
+    account_id bigint        NOT NULL,
+    status     credit_status NOT NULL,
+    nb         integer       NOT NULL DEFAULT 0 CHECK (nb >= 0),
+    PRIMARY KEY (account_id, status)
+);
+
+CREATE OR REPLACE FUNCTION credit_status_count_maj() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.deleted_at IS NULL THEN
+        UPDATE credit_status_count SET nb = nb - 1
+        WHERE account_id = OLD.account_id AND status = OLD.status;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.deleted_at IS NULL THEN
+        INSERT INTO credit_status_count (account_id, status, nb) VALUES (NEW.account_id, NEW.status, 1)
+        ON CONFLICT (account_id, status) DO UPDATE SET nb = credit_status_count.nb + 1;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- Pas d'écriture concurrente sur credit pendant l'initialisation des compteurs
+LOCK TABLE credit IN SHARE ROW EXCLUSIVE MODE;
+
+DROP TRIGGER IF EXISTS trg_credit_status_count ON credit;
+CREATE TRIGGER trg_credit_status_count
+    AFTER INSERT OR DELETE OR UPDATE OF status, account_id, deleted_at ON credit
+    FOR EACH ROW EXECUTE FUNCTION credit_status_count_maj();
+
+DELETE FROM credit_status_count;
+INSERT INTO credit_status_count (account_id, status, nb)
+SELECT account_id, status, COUNT(*) FROM credit WHERE deleted_at IS NULL GROUP BY account_id, status;
+
+COMMIT;
@@ -0,0 +1,120 @@
+-- Partitionnement mensuel (RANGE) de transaction (datetransaction) et historique (date)
+-- PartitionManager crée les partitions futures et détache/archive les mois froids.
+--
+-- Les tables existantes ne sont pas recopiées : elles deviennent la partition
+-- *_legacy qui couvre tout le passé jusqu'à la fin du mois courant.
+-- Les nouvelles lignes vont dans les partitions mensuelles transaction_yYYYYmMM.
+-- Une requête bornée par date (findByAccountIdBetween) ne lit que les partitions du mois
+-- concerné : taille d'index et latence ne dépendent plus des années d'historique.
+--
+-- Les clés primaires incluent la clé de partition (contrainte PostgreSQL).
+-- Les clés étrangères qui référencent transaction(id) ou historique(id) restent sur *_legacy.
+-- Les clés étrangères DE transaction / historique (ex : "accountId" → account) et leurs CHECK
+-- sont recréés sur les tables partitionnées : chaque partition mensuelle les hérite.
+--
+-- Limite : *_legacy est une seule partition (MINVALUE → fin du mois de la migration).
+-- Ses mois ne peuvent pas être archivés un par un par PartitionManager : seule la partition
+-- entière peut être détachée (ALTER TABLE ... DETACH PARTITION transaction_legacy).
+-- Pour archiver un mois ancien, le découper au préalable hors application : détacher *_legacy,
+-- copier le mois dans une partition mensuelle attachée (INSERT ... SELECT), le supprimer
+-- de *_legacy, puis réattacher *_legacy avec une borne de début relevée.
+--
+-- À exécuter en début de mois : de l'étape 1 à la fin de l'étape 2, une ligne datée
+-- du mois suivant serait refusée par les contraintes de plage (CHECK ... NOT VALID).
+-- Pendant la même fenêtre, une entrée d'historique sans date est refusée.
+
+-- 1. Préparation sans verrou exclusif : index, contraintes de plage, entrées sans date.
+--    Index construits sans bloquer les écritures ; repris tels quels par les index
+--    partitionnés à l'ATTACH (pas de reconstruction).
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS transaction_legacy_pk_idx
+    ON transaction (id, datetransaction);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS historique_legacy_pk_idx
+    ON historique (id, date);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historique_account_date
+    ON historique (accountid, date DESC);
+
+-- Contraintes de plage ajoutées NOT VALID (verrou bref, sans lecture de la table) :
+-- elles s'appliquent aussitôt aux nouvelles lignes.
+DO $$
+DECLARE
+    fin_legacy date := (date_trunc('month', now()) + interval '1 month')::date;
+BEGIN
+    EXECUTE format('ALTER TABLE transaction ADD CONSTRAINT transaction_legacy_range '
+                   'CHECK (datetransaction IS NOT NULL AND datetransaction < %L) NOT VALID', fin_legacy);
+    EXECUTE format('ALTER TABLE historique ADD CONSTRAINT historique_legacy_range '
+                   'CHECK (date IS NOT NULL AND date < %L) NOT VALID', fin_legacy);
+END
+$$;
+
+-- Les entrées d'historique sans date ne peuvent pas être routées par RANGE : elles vont
+-- dans historique_sans_date, future partition DEFAULT. Sa contrainte (date IS NULL) évite
+-- à PostgreSQL de la parcourir à l'ATTACH et à chaque création de partition mensuelle.
+CREATE TABLE IF NOT EXISTS historique_sans_date (LIKE historique INCLUDING DEFAULTS);
+ALTER TABLE historique_sans_date ADD CONSTRAINT historique_sans_date_null CHECK (date IS NULL);
+WITH deplacees AS (
+    DELETE FROM historique WHERE date IS NULL RETURNING *
+)
+INSERT INTO historique_sans_date SELECT * FROM deplacees;
+
+-- Validation : parcours complet, mais sous SHARE UPDATE EXCLUSIVE (lectures et écritures continuent)
+ALTER TABLE transaction VALIDATE CONSTRAINT transaction_legacy_range;
+ALTER TABLE historique VALIDATE CONSTRAINT historique_legacy_range;
+
+-- 2. Bascule sous verrou exclusif : uniquement des opérations de catalogue.
+BEGIN;
+
+LOCK TABLE transaction, historique IN ACCESS EXCLUSIVE MODE;
+
+DO $$
+DECLARE
+    fin_legacy date := (date_trunc('month', now()) + interval '1 month')::date;
+    fk record;
+BEGIN
+    -- transaction
+    ALTER TABLE transaction RENAME TO transaction_legacy;
+    ALTER INDEX idx_transaction_account_date_id RENAME TO transaction_legacy_account_date_id_idx;
+    CREATE TABLE transaction (LIKE transaction_legacy INCLUDING DEFAULTS)
+        PARTITION BY RANGE (datetransaction);
+    ALTER TABLE transaction ADD PRIMARY KEY (id, datetransaction);
+    CREATE INDEX idx_transaction_account_date_id ON transaction ("accountId", datetransaction DESC, id DESC);
+    -- Exigé par la clé primaire du parent ; prouvé par la contrainte validée, sans relecture
+    ALTER TABLE transaction_legacy ALTER COLUMN datetransaction SET NOT NULL;
+    -- Contrainte de plage validée : l'ATTACH ne relit pas la table
+    EXECUTE format('ALTER TABLE transaction ATTACH PARTITION transaction_legacy '
+                   'FOR VALUES FROM (MINVALUE) TO (%L)', fin_legacy);
+
+    -- historique
+    ALTER TABLE historique RENAME TO historique_legacy;
+    ALTER INDEX idx_historique_account_date RENAME TO historique_legacy_account_date_idx;
+    CREATE TABLE historique (LIKE historique_legacy INCLUDING DEFAULTS)
+        PARTITION BY RANGE (date);
+    ALTER TABLE historique ATTACH PARTITION historique_sans_date DEFAULT;
+    ALTER TABLE historique ADD UNIQUE (id, date);
+    CREATE INDEX idx_historique_account_date ON historique (accountid, date DESC);
+    EXECUTE format('ALTER TABLE historique ATTACH PARTITION historique_legacy '
+                   'FOR VALUES FROM (MINVALUE) TO (%L)', fin_legacy);
+
+    -- Clés étrangères et CHECK d'origine : non copiés par LIKE (INCLUDING CONSTRAINTS copierait
+    -- aussi la contrainte de plage de *_legacy sur le parent). Recréés sur le parent avec la même
+    -- définition et le même nom : PostgreSQL rattache la contrainte identique de *_legacy sans la
+    -- revalider, et les partitions mensuelles créées ensuite en héritent.
+    FOR fk IN
+        SELECT c.conname, c.conrelid::regclass::text AS legacy, pg_get_constraintdef(c.oid) AS def
+        FROM pg_constraint c
+        WHERE c.contype IN ('f', 'c')
+          AND c.conname NOT IN ('transaction_legacy_range', 'historique_legacy_range')
+          AND c.conrelid IN ('transaction_legacy'::regclass, 'historique_legacy'::regclass)
+    LOOP
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I %s',
+                       replace(fk.legacy, '_legacy', ''), fk.conname, fk.def);
+    END LOOP;
+END
+$$;
+
+COMMIT;
+
+-- 3. Schéma de destination des mois archivés (PartitionManager.archiveMonth)
+CREATE SCHEMA IF NOT EXISTS archive;
+
+-- Les partitions mensuelles à venir sont créées par PartitionManager.ensureFuturePartitions()
+-- (au démarrage de l'application puis chaque jour).
@@ -0,0 +1,37 @@
+-- Chaîne de hachage inviolable des entrées d'historique (HistoriqueRepository, HistoriqueChainVerifier)
+-- Chaque compte a sa chaîne : seq = 1, 2, 3...  hash = SHA-256(prev_hash | contenu).
+-- historique_chain_head garde la dernière valeur (seq, hash) de chaque compte :
+-- l'ajout d'une entrée ne relit que cette tête, verrouillée le temps de la transaction.
+-- Les entrées antérieures à cette migration restent hors chaîne (seq NULL).
+-- Une entrée plus récente sans seq a été insérée sans passer par HistoriqueRepository :
+-- le vérificateur la signale (id au-delà du point de bascule).
+
+ALTER TABLE historique ADD COLUMN IF NOT EXISTS seq bigint;
+ALTER TABLE historique ADD COLUMN IF NOT EXISTS prev_hash bytea;
+ALTER TABLE historique ADD COLUMN IF NOT EXISTS hash bytea;
+
+CREATE TABLE IF NOT EXISTS historique_chain_head (
+    accountid bigint PRIMARY KEY,
+    seq       bigint NOT NULL,
+    hash      bytea  NOT NULL
+);
+
+-- Lecture des chaînes dans l'ordre par le vérificateur (index partitionné, une partie par mois)
+CREATE INDEX IF NOT EXISTS idx_historique_chain
+    ON historique (accountid, seq)
+    WHERE seq IS NOT NULL;
+
+-- Point de bascule : plus grand id d'historique au moment de la migration (une seule ligne).
+-- À exécuter avant le déploiement de l'application qui chaîne les entrées.
+CREATE TABLE IF NOT EXISTS historique_chain_cutover (
+    unique_row boolean PRIMARY KEY DEFAULT true CHECK (unique_row),
+    id_max     bigint  NOT NULL
+);
+INSERT INTO historique_chain_cutover (id_max)
+SELECT COALESCE(MAX(id), 0) FROM historique
+ON CONFLICT DO NOTHING;
+
+-- Recherche des entrées hors chaîne postérieures à la bascule (parcours borné par id)
+CREATE INDEX IF NOT EXISTS idx_historique_hors_chaine
+    ON historique (id)
+    WHERE seq IS NULL;
@@ -0,0 +1,31 @@
+-- Instantanés journaliers des agrégats de montants (StatistiqueEngine / StatistiqueRepository)
+-- Types : TRANSACTION_<TransactionType>, ACCOUNT_<AccountType>, plus les types libres existants.
+-- Les valeurs courantes sont tenues en mémoire (recalculées au démarrage) ;
+-- la table ne garde que les instantanés journaliers.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS statistique (
+    id         bigserial PRIMARY KEY,
+    type       varchar(64) NOT NULL,
+    datecalcul timestamp   NOT NULL,
+    auditor_id bigint      REFERENCES auditor (id)
+);
+
+ALTER TABLE statistique
+    ADD COLUMN IF NOT EXISTS nb       bigint           NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS somme    numeric(18, 2)   NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS minimum  numeric(18, 2),
+    ADD COLUMN IF NOT EXISTS maximum  numeric(18, 2),
+    ADD COLUMN IF NOT EXISTS moyenne  double precision NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS variance double precision NOT NULL DEFAULT 0;
+
+-- Un seul instantané par type et par jour (existsByTypeAndDate, protection contre un double calcul concurrent)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_statistique_type_jour
+    ON statistique (type, (datecalcul::date));
+
+-- findLatestByType (types hors moteur) et findByDateCalculRange
+CREATE INDEX IF NOT EXISTS idx_statistique_datecalcul
+    ON statistique (datecalcul DESC);
+
+COMMIT;
@@ -0,0 +1,6 @@
+-- Mots de passe hachés (PasswordHasher : pbkdf2-sha256$<itérations>$<sel>$<hash>, ~90 caractères)
+-- Les mots de passe encore en clair sont convertis à la connexion suivante de chaque utilisateur
+-- (AuthService.login) ; la colonne doit pouvoir contenir le format haché.
+-- treller hérite de users : la modification s'applique aussi à la table enfant.
+
+ALTER TABLE users ALTER COLUMN password TYPE text;
@@ -0,0 +1,13 @@
+-- Unicité des emails de clients actifs, sans tenir compte de la casse
+-- Sert ClientRepository.existsByEmail : WHERE lower(email) = lower(?) AND deleted_at IS NULL
+-- et garantit l'unicité quand le filtre de Bloom (ClientEmailFilter) ne connaît pas encore
+-- un email (inséré hors de l'application, ou pendant le chargement du filtre).
+-- Partiel : l'email d'un client supprimé (deleted_at) peut être réutilisé.
+--
+-- Doublons existants à traiter avant création (sinon l'index reste INVALID) :
+--   SELECT lower(email), array_agg(id) FROM client WHERE deleted_at IS NULL
+--   GROUP BY lower(email) HAVING count(*) > 1;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_client_email_lower
+    ON client (lower(email))
+    WHERE deleted_at IS NULL;
@@ -1,18 +1,34 @@
 package app;
 
 import app.Controllers.AuthController;
+import app.repositories.AsyncHistoriqueWriter;
+import app.repositories.ClientEmailFilter;
+import app.repositories.PartitionManager;
 import app.ui.AuthMenu;
+import app.utils.DatabaseConnection;
 
 public class Main {
     public static void main(String[] args) {
 
+        // Partitions mensuelles de transaction/historique : mois courant + 3 mois d'avance
+        PartitionManager partitionManager = new PartitionManager();
+        partitionManager.start(3);
+
+        // Filtre des emails clients chargé en tâche de fond pendant la connexion
+        ClientEmailFilter.getInstance();
+
         // ✅ Main ne connaît QUE le contrôleur
         AuthController authController = new AuthController();
         
         // Start simplified auth menu
         final AuthMenu authMenu = new AuthMenu(authController);
         authMenu.showLoginMenu();
-        
+
+        // Écrire l'historique en attente avant de fermer le pool de connexions
+        partitionManager.stop();
+        AsyncHistoriqueWriter.shutdownInstance(5_000);
+        DatabaseConnection.closeConnection();
+
         System.exit(0);
     }
 }
@@ -0,0 +1,41 @@
+package app.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Avancement du remboursement d'un crédit : base du recalcul des échéances restantes
+ * (capital restant dû = montant initial - capital remboursé).
+ * Le recalcul suppose que les échéances payées sont les premières (1..nbPayees) :
+ * isPayeesContigues() le vérifie.
+ */
+public class EcheancierProgress {
+    private final long creditId;
+    private final int nbPayees;
+    private final BigDecimal capitalRembourse;
+    private final int dernierNumeroPaye;
+    private final LocalDate premiereDatePrevue;
+
+    public EcheancierProgress(long creditId, int nbPayees, int dernierNumeroPaye, BigDecimal capitalRembourse,
+                              LocalDate premiereDatePrevue) {
+        this.creditId = creditId;
+        this.nbPayees = nbPayees;
+        this.dernierNumeroPaye = dernierNumeroPaye;
+        this.capitalRembourse = capitalRembourse;
+        this.premiereDatePrevue = premiereDatePrevue;
+    }
+
+    public long getCreditId() { return creditId; }
+
+    public int getNbPayees() { return nbPayees; }
+
+    /** Plus grand numéro d'échéance payée, 0 si aucune */
+    public int getDernierNumeroPaye() { return dernierNumeroPaye; }
+
+    /** true si les échéances payées sont exactement 1..nbPayees */
+    public boolean isPayeesContigues() { return dernierNumeroPaye == nbPayees; }
+
+    public BigDecimal getCapitalRembourse() { return capitalRembourse; }
+
+    public LocalDate getPremiereDatePrevue() { return premiereDatePrevue; }
+}
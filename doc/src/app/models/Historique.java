@@ -8,6 +8,9 @@ public class Historique {
     private LocalDateTime date;
     private long accountId; // Relation Many-to-One : un historique appartient à un compte
     private Auditor auditor; // auditor li ttfara3 lhistorique
+    private long seq; // Rang dans la chaîne de hachage du compte (1, 2, 3...)
+    private byte[] prevHash; // Hash de l'entrée précédente du compte
+    private byte[] hash; // SHA-256(prevHash + contenu de l'entrée)
 
     public Historique() {}
 
@@ -39,4 +42,13 @@ public class Historique {
     public void setAuditor(Auditor auditor) {
         this.auditor = auditor;
     }
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+
+    public byte[] getPrevHash() { return prevHash; }
+    public void setPrevHash(byte[] prevHash) { this.prevHash = prevHash; }
+
+    public byte[] getHash() { return hash; }
+    public void setHash(byte[] hash) { this.hash = hash; }
 }
@@ -0,0 +1,77 @@
+package app.models;
+
+import java.util.List;
+
+/**
+ * Résultat d'une vérification des chaînes de hachage de l'historique.
+ * Au plus un maillon rompu par compte : le premier, les suivants en dépendent.
+ * Les entrées insérées après la migration sans être chaînées (seq NULL) sont listées à part.
+ */
+public class HistoriqueChainReport {
+
+    public static class BrokenLink {
+        private final long accountId;
+        private final long seq;
+        private final long historiqueId;
+        private final String raison;
+
+        public BrokenLink(long accountId, long seq, long historiqueId, String raison) {
+            this.accountId = accountId;
+            this.seq = seq;
+            this.historiqueId = historiqueId;
+            this.raison = raison;
+        }
+
+        public long getAccountId() { return accountId; }
+
+        public long getSeq() { return seq; }
+
+        /** ID de l'entrée fautive, 0 si l'entrée est absente (chaîne tronquée) */
+        public long getHistoriqueId() { return historiqueId; }
+
+        public String getRaison() { return raison; }
+
+        @Override
+        public String toString() {
+            return "compte " + accountId + ", seq " + seq + (historiqueId == 0 ? "" : " (id " + historiqueId + ")") + " : " + raison;
+        }
+    }
+
+    private final long entreesVerifiees;
+    private final long comptesVerifies;
+    private final List<BrokenLink> maillonsRompus;
+    private final List<BrokenLink> entreesHorsChaine;
+    private final long dureeMs;
+
+    public HistoriqueChainReport(long entreesVerifiees, long comptesVerifies, List<BrokenLink> maillonsRompus,
+                                 List<BrokenLink> entreesHorsChaine, long dureeMs) {
+        this.entreesVerifiees = entreesVerifiees;
+        this.comptesVerifies = comptesVerifies;
+        this.maillonsRompus = maillonsRompus;
+        this.entreesHorsChaine = entreesHorsChaine;
+        this.dureeMs = dureeMs;
+    }
+
+    public long getEntreesVerifiees() { return entreesVerifiees; }
+
+    public long getComptesVerifies() { return comptesVerifies; }
+
+    /** Premier maillon rompu de chaque compte, triés par compte */
+    public List<BrokenLink> getMaillonsRompus() { return maillonsRompus; }
+
+    /** Entrées sans seq insérées après la migration (seq 0 dans le rapport), triées par id */
+    public List<BrokenLink> getEntreesHorsChaine() { return entreesHorsChaine; }
+
+    public long getDureeMs() { return dureeMs; }
+
+    public boolean isIntegre() { return maillonsRompus.isEmpty() && entreesHorsChaine.isEmpty(); }
+
+    @Override
+    public String toString() {
+        return "Chaînes d'historique : " + entreesVerifiees + " entrées, " + comptesVerifies + " comptes, "
+                + maillonsRompus.size() + " compte(s) altéré(s), " + entreesHorsChaine.size()
+                + " entrée(s) hors chaîne en " + dureeMs + " ms"
+                + (maillonsRompus.isEmpty() ? "" : " ; premier maillon rompu : " + maillonsRompus.get(0))
+                + (entreesHorsChaine.isEmpty() ? "" : " ; première entrée hors chaîne : " + entreesHorsChaine.get(0));
+    }
+}
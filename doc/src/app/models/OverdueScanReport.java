@@ -0,0 +1,45 @@
+package app.models;
+
+import java.time.LocalDate;
+
+/**
+ * Résultat d'un passage du scanner d'échéances en retard.
+ * Intervalle scanné : ]debut, fin] (debut null au premier passage = tout l'arriéré).
+ */
+public class OverdueScanReport {
+    private final LocalDate debut;
+    private final LocalDate fin;
+    private final int lignesScannees;
+    private final int creditsConcernes;
+    private final int creditsPassesEnRetard;
+    private final long dureeMs;
+
+    public OverdueScanReport(LocalDate debut, LocalDate fin, int lignesScannees,
+                             int creditsConcernes, int creditsPassesEnRetard, long dureeMs) {
+        this.debut = debut;
+        this.fin = fin;
+        this.lignesScannees = lignesScannees;
+        this.creditsConcernes = creditsConcernes;
+        this.creditsPassesEnRetard = creditsPassesEnRetard;
+        this.dureeMs = dureeMs;
+    }
+
+    public LocalDate getDebut() { return debut; }
+
+    public LocalDate getFin() { return fin; }
+
+    public int getLignesScannees() { return lignesScannees; }
+
+    public int getCreditsConcernes() { return creditsConcernes; }
+
+    public int getCreditsPassesEnRetard() { return creditsPassesEnRetard; }
+
+    public long getDureeMs() { return dureeMs; }
+
+    @Override
+    public String toString() {
+        return "Scan retards ]" + (debut == null ? "-∞" : debut) + ", " + fin + "] : "
+                + lignesScannees + " échéances scannées, " + creditsConcernes + " crédits concernés, "
+                + creditsPassesEnRetard + " passés LATE en " + dureeMs + " ms";
+    }
+}
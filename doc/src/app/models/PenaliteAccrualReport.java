@@ -0,0 +1,45 @@
+package app.models;
+
+import java.time.LocalDate;
+
+/**
+ * Résultat d'un passage du calcul des pénalités de retard (débit et durée).
+ */
+public class PenaliteAccrualReport {
+    private final LocalDate dateMetier;
+    private final int partitions;
+    private final int lignesLues;
+    private final int lignesMisesAJour;
+    private final long dureeMs;
+
+    public PenaliteAccrualReport(LocalDate dateMetier, int partitions, int lignesLues, int lignesMisesAJour, long dureeMs) {
+        this.dateMetier = dateMetier;
+        this.partitions = partitions;
+        this.lignesLues = lignesLues;
+        this.lignesMisesAJour = lignesMisesAJour;
+        this.dureeMs = dureeMs;
+    }
+
+    public LocalDate getDateMetier() { return dateMetier; }
+
+    public int getPartitions() { return partitions; }
+
+    public int getLignesLues() { return lignesLues; }
+
+    public int getLignesMisesAJour() { return lignesMisesAJour; }
+
+    public long getDureeMs() { return dureeMs; }
+
+    /**
+     * Débit en lignes mises à jour par seconde (temps écoulé réel).
+     */
+    public double getLignesParSeconde() {
+        return dureeMs == 0 ? lignesMisesAJour : lignesMisesAJour * 1000.0 / dureeMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pénalités %s : %d lues, %d mises à jour, %d partitions, %d ms (%.0f lignes/s)",
+                dateMetier, lignesLues, lignesMisesAJour, partitions, dureeMs, getLignesParSeconde());
+    }
+}
@@ -0,0 +1,35 @@
+package app.models;
+
+import java.time.Instant;
+
+/**
+ * Session d'un utilisateur connecté (SessionRegistry).
+ * L'utilisateur est une copie sans mot de passe, figée à la connexion.
+ */
+public class Session {
+
+    private final String token;
+    private final User user;
+    private final Instant creeLe;
+    private volatile long dernierAccesNanos;
+
+    public Session(String token, User user, Instant creeLe, long dernierAccesNanos) {
+        this.token = token;
+        this.user = user;
+        this.creeLe = creeLe;
+        this.dernierAccesNanos = dernierAccesNanos;
+    }
+
+    public String getToken() { return token; }
+
+    public User getUser() { return user; }
+
+    public long getUserId() { return user.getId(); }
+
+    public Instant getCreeLe() { return creeLe; }
+
+    /** Horloge monotone (System.nanoTime) du dernier accès */
+    public long getDernierAccesNanos() { return dernierAccesNanos; }
+
+    public void touch(long nowNanos) { this.dernierAccesNanos = nowNanos; }
+}
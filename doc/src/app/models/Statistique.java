@@ -1,5 +1,6 @@
 package app.models;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public class Statistique {
@@ -7,6 +8,12 @@ public class Statistique {
     private String type;
     private LocalDateTime dateCalcul; // Quand la statistique a été calculée
     private long auditorId; // Many-to-One : auditeur qui génère la statistique
+    private long nombre; // Nombre de montants agrégés
+    private BigDecimal somme;
+    private BigDecimal minimum;
+    private BigDecimal maximum;
+    private double moyenne;
+    private double variance; // Variance de population
 
     public Statistique() {}
 
@@ -29,4 +36,24 @@ public class Statistique {
 
     public long getAuditorId() { return auditorId; }
     public void setAuditorId(long auditorId) { this.auditorId = auditorId; }
+
+    public long getNombre() { return nombre; }
+    public void setNombre(long nombre) { this.nombre = nombre; }
+
+    public BigDecimal getSomme() { return somme; }
+    public void setSomme(BigDecimal somme) { this.somme = somme; }
+
+    public BigDecimal getMinimum() { return minimum; }
+    public void setMinimum(BigDecimal minimum) { this.minimum = minimum; }
+
+    public BigDecimal getMaximum() { return maximum; }
+    public void setMaximum(BigDecimal maximum) { this.maximum = maximum; }
+
+    public double getMoyenne() { return moyenne; }
+    public void setMoyenne(double moyenne) { this.moyenne = moyenne; }
+
+    public double getVariance() { return variance; }
+    public void setVariance(double variance) { this.variance = variance; }
+
+    public double getEcartType() { return Math.sqrt(variance); }
 }
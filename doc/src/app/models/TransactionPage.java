@@ -0,0 +1,24 @@
+package app.models;
+
+import java.util.List;
+
+/**
+ * Page d'historique de transactions (pagination par clé).
+ * nextCursor est un jeton opaque à repasser pour obtenir la page suivante,
+ * null s'il n'y a plus de transactions.
+ */
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final String nextCursor;
+
+    public TransactionPage(List<Transaction> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getTransactions() { return transactions; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    public boolean hasNext() { return nextCursor != null; }
+}
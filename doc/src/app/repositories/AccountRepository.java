@@ -71,6 +71,42 @@ public class AccountRepository implements AccountInterface {
         }
     }
 
+    /**
+     * Chargement projeté pour la validation TELLER : une requête quel que soit le nombre d'IDs.
+     */
+    @Override
+    public Map<Long, Account> findByIds(Collection<Long> ids) {
+        Map<Long, Account> accounts = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return accounts;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT id, solde, status, type, \"clientId\" FROM account " +
+                "WHERE id IN (" + placeholders + ") AND deleted_at IS NULL";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Long id : ids) {
+                stmt.setLong(i++, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Account account = new Account();
+                    account.setId(rs.getLong("id"));
+                    account.setSolde(rs.getBigDecimal("solde"));
+                    account.setStatus(rs.getString("status"));
+                    account.setClientId(rs.getLong("clientId"));
+                    String typeStr = rs.getString("type");
+                    account.setType(typeStr == null ? null : app.models.Enums.AccountType.valueOf(typeStr));
+                    accounts.put(account.getId(), account);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors du chargement des comptes : " + e.getMessage(), e);
+        }
+        return accounts;
+    }
+
     @Override
     public List<Account> findByClientId(Long clientId) {
     String sql = "SELECT * FROM account WHERE \"clientId\" = ? AND deleted_at IS NULL";
@@ -125,6 +161,33 @@ public class AccountRepository implements AccountInterface {
         }
     }
 
+    /**
+     * Mise à jour atomique du solde avec garde anti-découvert, nouveau solde via RETURNING.
+     * Le verrou de ligne posé par l'UPDATE sérialise les mouvements concurrents sur un même compte.
+     */
+    @Override
+    public BigDecimal applyDelta(Long accountId, BigDecimal delta) {
+        String sql = "UPDATE account SET solde = solde + ? " +
+                "WHERE id = ? AND deleted_at IS NULL AND (? >= 0 OR solde + ? >= 0) " +
+                "RETURNING solde";
+        BigDecimal montant = delta.setScale(2, java.math.RoundingMode.HALF_UP);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setBigDecimal(1, montant);
+            stmt.setLong(2, accountId);
+            stmt.setBigDecimal(3, montant);
+            stmt.setBigDecimal(4, montant);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getBigDecimal("solde");
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors du mouvement sur le solde : " + e.getMessage(), e);
+        }
+        return null;
+    }
+
     @Override
     public boolean isAccountActive(Long accountId) {
         String sql = "SELECT status FROM account WHERE id = ? AND deleted_at IS NULL";
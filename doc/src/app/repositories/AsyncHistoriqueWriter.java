@@ -0,0 +1,250 @@
+package app.repositories;
+
+import app.models.Auditor;
+import app.models.Historique;
+import app.repositories.interfaces.HistoriqueInterface;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Écriture différée des entrées d'historique (audit) hors du chemin critique TELLER.
+ *
+ * - File bornée : l'appelant ne fait qu'un offer/put, pas d'aller-retour base
+ * - Un thread d'écriture regroupe les entrées par lots (taille max OU délai max depuis
+ *   la première entrée du lot) et les insère via HistoriqueInterface.saveAll()
+ * - File pleine : Mode.BLOCK attend de la place (aucune perte, contre-pression),
+ *   Mode.DROP rejette l'entrée et l'ajoute au compteur getDroppedCount()
+ * - shutdown() écrit tout ce qui reste dans la file avant de rendre la main
+ *
+ * Durabilité : une entrée soumise mais pas encore écrite est perdue si le processus
+ * s'arrête brutalement. Les entrées d'un lot en échec sont comptées dans getFailedCount().
+ */
+public class AsyncHistoriqueWriter {
+
+    public enum Mode { BLOCK, DROP }
+
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 200;
+    private static final long DEFAULT_MAX_DELAY_MS = 200;
+    // En Mode.BLOCK, intervalle de revérification de l'arrêt pendant l'attente de place
+    private static final long OFFER_RETRY_MS = 100;
+
+    private static volatile AsyncHistoriqueWriter instance = null;
+
+    private final HistoriqueInterface repository;
+    private final BlockingQueue<Historique> queue;
+    private final Mode mode;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // Réveille les appels flush() après chaque lot
+    private final Object progress = new Object();
+
+    /**
+     * Écrivain partagé de l'application (créé au premier appel, Mode.BLOCK).
+     */
+    public static AsyncHistoriqueWriter getInstance() {
+        AsyncHistoriqueWriter w = instance;
+        if (w == null) {
+            synchronized (AsyncHistoriqueWriter.class) {
+                w = instance;
+                if (w == null) {
+                    w = new AsyncHistoriqueWriter(new HistoriqueRepository(), DEFAULT_CAPACITY,
+                            DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY_MS, Mode.BLOCK);
+                    instance = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Arrêter l'écrivain partagé s'il a été créé (à appeler avant DatabaseConnection.closeConnection()).
+     */
+    public static void shutdownInstance(long timeoutMs) {
+        synchronized (AsyncHistoriqueWriter.class) {
+            if (instance != null) {
+                instance.shutdown(timeoutMs);
+                instance = null;
+            }
+        }
+    }
+
+    public AsyncHistoriqueWriter(HistoriqueInterface repository, int capacity, int batchSize, long maxDelayMs, Mode mode) {
+        if (capacity <= 0 || batchSize <= 0 || maxDelayMs <= 0) {
+            throw new IllegalArgumentException("Configuration d'écriture d'historique invalide");
+        }
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.mode = mode;
+        this.flusher = new Thread(this::runFlusher, "historique-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Soumettre une entrée d'historique pour écriture différée.
+     * @return true si l'entrée est en file, false si elle a été rejetée (file pleine en Mode.DROP, arrêt)
+     */
+    public boolean submit(Historique historique) {
+        if (!running) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        boolean queued;
+        if (mode == Mode.DROP) {
+            queued = queue.offer(historique);
+        } else {
+            queued = offerBlocking(historique);
+        }
+        if (!queued) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        submitted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Équivalent différé de HistoriqueRepository.addEntry()
+     */
+    public boolean addEntry(long accountId, String description, Long auditorId) {
+        Historique h = new Historique();
+        h.setAccountId(accountId);
+        h.setDescription(description);
+        h.setDate(LocalDateTime.now());
+        if (auditorId != null) {
+            Auditor auditor = new Auditor();
+            auditor.setId(auditorId);
+            h.setAuditor(auditor);
+        }
+        return submit(h);
+    }
+
+    /**
+     * Attendre que toutes les entrées soumises avant l'appel soient traitées (écrites ou en échec).
+     * @return true si tout est traité avant le délai
+     */
+    public boolean flush(long timeoutMs) {
+        long target = submitted.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (progress) {
+            while (written.get() + failed.get() < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Refuser les nouvelles entrées puis écrire celles restant en file.
+     * @return true si la file a été entièrement vidée avant le délai
+     */
+    public boolean shutdown(long timeoutMs) {
+        running = false;
+        try {
+            flusher.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive() || !queue.isEmpty()) {
+            System.err.println("Historique : " + queue.size() + " entrée(s) non écrite(s) à l'arrêt");
+            return false;
+        }
+        return true;
+    }
+
+    public long getSubmittedCount() { return submitted.get(); }
+
+    public long getWrittenCount() { return written.get(); }
+
+    public long getDroppedCount() { return dropped.get(); }
+
+    public long getFailedCount() { return failed.get(); }
+
+    public int getQueueSize() { return queue.size(); }
+
+    private boolean offerBlocking(Historique historique) {
+        try {
+            while (!queue.offer(historique, OFFER_RETRY_MS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runFlusher() {
+        List<Historique> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Historique first = queue.poll(maxDelayNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Compléter le lot jusqu'à batchSize ou jusqu'au délai max de la première entrée
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Historique next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Interruption = arrêt : on vide quand même la file
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Historique> batch) {
+        try {
+            repository.saveAll(batch);
+            written.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            System.err.println("Historique : échec écriture d'un lot de " + batch.size() + " entrée(s) : " + e.getMessage());
+        }
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+}
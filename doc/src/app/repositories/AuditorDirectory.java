@@ -0,0 +1,130 @@
+package app.repositories;
+
+import app.utils.DatabaseConnection;
+import app.utils.LruCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annuaire en mémoire des noms d'auditeurs, par ID.
+ *
+ * Remplace la jointure historique ⋈ auditor ligne par ligne : les lectures d'historique
+ * ne lisent que leurs colonnes, puis résolvent les quelques IDs distincts ici.
+ * - Cache LRU borné, entrées expirées après TTL (un renommage est visible au plus tard après TTL)
+ * - Les IDs absents du cache sont chargés en une seule requête (= ANY)
+ * - Un ID inconnu en base est aussi mis en cache, pour ne pas le redemander à chaque lecture
+ */
+public class AuditorDirectory {
+
+    private static final int DEFAULT_MAX_SIZE = 500;
+    private static final long DEFAULT_TTL_MS = 10 * 60_000;
+    // Marque "auditeur inconnu" dans le cache (absence mise en cache)
+    private static final String INCONNU = "";
+
+    private static volatile AuditorDirectory instance = null;
+
+    private final LruCache<Long, String> names;
+
+    /**
+     * Annuaire partagé de l'application.
+     */
+    public static AuditorDirectory getInstance() {
+        AuditorDirectory d = instance;
+        if (d == null) {
+            synchronized (AuditorDirectory.class) {
+                d = instance;
+                if (d == null) {
+                    d = new AuditorDirectory(DEFAULT_MAX_SIZE, DEFAULT_TTL_MS);
+                    instance = d;
+                }
+            }
+        }
+        return d;
+    }
+
+    public AuditorDirectory(int maxSize, long ttlMillis) {
+        this.names = new LruCache<>(maxSize, ttlMillis);
+    }
+
+    /**
+     * @return Nom complet de l'auditeur, null si inconnu
+     */
+    public String getName(long auditorId) {
+        return getNames(List.of(auditorId)).get(auditorId);
+    }
+
+    /**
+     * Noms de plusieurs auditeurs : cache d'abord, une requête pour les manquants.
+     * @return Map auditorId → nom complet (IDs inconnus absents)
+     */
+    public Map<Long, String> getNames(Collection<Long> auditorIds) {
+        Map<Long, String> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : auditorIds) {
+            if (result.containsKey(id) || missing.contains(id)) {
+                continue;
+            }
+            String name = names.get(id);
+            if (name == null) {
+                missing.add(id);
+            } else if (!INCONNU.equals(name)) {
+                result.put(id, name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, String> loaded = load(missing);
+            for (Long id : missing) {
+                String name = loaded.get(id);
+                names.put(id, name == null ? INCONNU : name);
+                if (name != null) {
+                    result.put(id, name);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Oublier un auditeur (après renommage ou suppression).
+     */
+    public void invalidate(long auditorId) {
+        names.remove(auditorId);
+    }
+
+    /**
+     * Vider l'annuaire : les noms seront relus à la prochaine demande.
+     */
+    public void refresh() {
+        names.clear();
+    }
+
+    public LruCache.Stats getStats() {
+        return names.getStats();
+    }
+
+    private Map<Long, String> load(Collection<Long> auditorIds) {
+        String sql = "SELECT id, fullname FROM auditor WHERE id = ANY(?)";
+        Map<Long, String> loaded = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", auditorIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    loaded.put(rs.getLong("id"), rs.getString("fullname"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur chargement des noms d'auditeurs : " + e.getMessage(), e);
+        }
+        return loaded;
+    }
+}
@@ -6,37 +6,31 @@ import app.models.*;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import app.utils.DatabaseConnection;
 
+/**
+ * Accès aux utilisateurs pour l'authentification.
+ * Une connexion empruntée au pool par opération (rendue par try-with-resources) :
+ * des connexions simultanées utilisent des connexions différentes.
+ * Requêtes constantes : le driver garde leur préparation serveur par connexion physique
+ * (prepareThreshold / preparedStatementCacheQueries, voir DatabaseConnection).
+ */
 public class AuthRepository implements AuthInterface {
 
-    private final Connection connection;
-
-    public AuthRepository() {
-        this.connection = DatabaseConnection.getConnection();
-    }
+    private static final String SELECT_COLUMNS = "SELECT id, fullName, role, email, password, logged_in FROM users ";
+    private static final String FIND_BY_ID_SQL = SELECT_COLUMNS + "WHERE id = ?";
+    private static final String FIND_BY_EMAIL_SQL = SELECT_COLUMNS + "WHERE email = ?";
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password = ? WHERE id = ?";
 
     @Override
     public User findById(long id) {
-        String sql = "SELECT * FROM users WHERE id = ?";
-        try (PreparedStatement prepareStmt = connection.prepareStatement(sql)) {
-            prepareStmt.setLong(1, id);
-            try (ResultSet result = prepareStmt.executeQuery()) {
-
-                User user = new User();
-
-                while (result.next()) {
-                    user.setId(result.getLong("id"));
-                    user.setFullName(result.getString("fullName"));
-                    user.setRole(User.Role.valueOf(result.getString("role")));
-                    user.setEmail(result.getString("email"));
-                    user.setPassword(result.getString("password"));
-                    user.setLoggedIn(result.getBoolean("logged_in"));
-                }
-
-                return user;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
+            stmt.setLong(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapUser(rs) : null;
             }
-
         } catch (Exception e) {
             System.err.println("Erreur lors de la recherche utilisateur par ID " + id + ": " + e.getMessage());
             return null;
@@ -44,72 +38,41 @@ public class AuthRepository implements AuthInterface {
     }
 
     @Override
-    public User findByEmailAndPassword(String email, String password) {
-        String sql = "SELECT * FROM users WHERE email = ? AND password = ?";
-        try(PreparedStatement pStatement = connection.prepareStatement(sql)){
-            pStatement.setString(1, email);
-            pStatement.setString(2, password);
-            try(ResultSet rs = pStatement.executeQuery()){
-                User user = new User();
-                while (rs.next()) {
-                    user.setId(rs.getLong("id"));
-                    user.setFullName(rs.getString("fullName"));
-                    user.setRole(User.Role.valueOf(rs.getString("role")));
-                    user.setEmail(rs.getString("email"));
-                    user.setPassword(rs.getString("password"));
-                    user.setLoggedIn(rs.getBoolean("logged_in"));
-                }
-                return user;
+    public User findByEmail(String email) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_EMAIL_SQL)) {
+            stmt.setString(1, email);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapUser(rs) : null;
             }
-        } catch(Exception e){
-            System.err.println("Erreur lors de l'authentification pour email " + email + ": " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Erreur lors de la recherche utilisateur par email " + email + ": " + e.getMessage());
             return null;
         }
     }
 
     @Override
-    public void updateLoggedInStatus(long userId, boolean loggedIn) {
-        String sql = "UPDATE users SET logged_in = ? WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setBoolean(1, loggedIn);
+    public void updatePassword(long userId, String passwordHash) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_PASSWORD_SQL)) {
+            stmt.setString(1, passwordHash);
             stmt.setLong(2, userId);
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected == 0) {
+            if (stmt.executeUpdate() == 0) {
                 System.err.println("Aucun utilisateur trouvé avec l'ID: " + userId);
             }
         } catch (Exception e) {
-            System.err.println("Erreur lors de la mise à jour du statut de connexion pour l'utilisateur " + userId + ": " + e.getMessage());
+            System.err.println("Erreur lors de la mise à jour du mot de passe de l'utilisateur " + userId + ": " + e.getMessage());
         }
     }
 
-    @Override
-    public boolean isUserLoggedIn(long userId) {
-        String sql = "SELECT logged_in FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setLong(1, userId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getBoolean("logged_in");
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Erreur lors de la vérification du statut de connexion pour l'utilisateur " + userId + ": " + e.getMessage());
-        }
-        return false;
+    private User mapUser(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setId(rs.getLong("id"));
+        user.setFullName(rs.getString("fullName"));
+        user.setRole(User.Role.valueOf(rs.getString("role")));
+        user.setEmail(rs.getString("email"));
+        user.setPassword(rs.getString("password"));
+        user.setLoggedIn(rs.getBoolean("logged_in"));
+        return user;
     }
-
-        
-        public Long getConnectUser() {
-            String sql = "SELECT id FROM users WHERE logged_in = true LIMIT 1";
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getLong("id");
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Erreur lors de la récupération de l'ID de l'utilisateur connecté : " + e.getMessage());
-            }
-            return null;
-        }
 }
@@ -0,0 +1,251 @@
+package app.repositories;
+
+import app.models.Account;
+import app.repositories.interfaces.AccountInterface;
+import app.utils.LruCache;
+import app.utils.UnitOfWork;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Décorateur de cache en lecture devant un AccountInterface.
+ *
+ * - findById, findByClientId, isAccountActive : servis depuis un cache LRU borné avec TTL
+ * - findByIds (validation des opérations TELLER) : comptes en cache servis directement,
+ *   seuls les absents sont chargés en base, en une requête
+ * - save, update, updateSolde, applyDelta : invalidation immédiate ET après COMMIT
+ * - Chaque invalidation incrémente une génération (par groupe de comptes) : une lecture
+ *   ne remet sa valeur en cache que si aucune invalidation n'a eu lieu depuis son début.
+ *   Une lecture qui a chargé l'ancienne ligne avant le COMMIT d'un écrivain ne peut donc
+ *   pas la remettre en cache après l'invalidation de cet écrivain.
+ * - Rien n'est mis en cache pendant une UnitOfWork (données non encore validées)
+ * - Une modification faite hors de ce décorateur est vue au plus tard après le TTL
+ *
+ * Les objets Account sont copiés à l'entrée et à la sortie du cache :
+ * un appelant qui modifie son compte ne modifie pas la valeur en cache.
+ */
+public class CachedAccountRepository implements AccountInterface {
+
+    private static final int DEFAULT_MAX_SIZE = 1_000;
+    private static final long DEFAULT_TTL_MS = 30_000;
+    // Nombre de groupes de générations (puissance de 2)
+    private static final int STRIPES = 256;
+
+    private final AccountInterface delegate;
+    private final LruCache<Long, Account> byId;
+    // Comptes non supprimés (même filtre que delegate.findByIds)
+    private final LruCache<Long, Account> validById;
+    private final LruCache<Long, List<Account>> byClientId;
+    private final LruCache<Long, Boolean> activeById;
+
+    // Générations : lues avant le chargement, comparées sous le même verrou que l'invalidation
+    private final Object guard = new Object();
+    private final long[] generations = new long[STRIPES];
+    // Listes par client : le propriétaire d'un compte invalidé n'est pas toujours connu
+    private long clientsGeneration;
+
+    public CachedAccountRepository(AccountInterface delegate) {
+        this(delegate, DEFAULT_MAX_SIZE, DEFAULT_TTL_MS);
+    }
+
+    public CachedAccountRepository(AccountInterface delegate, int maxSize, long ttlMillis) {
+        this.delegate = delegate;
+        this.byId = new LruCache<>(maxSize, ttlMillis);
+        this.validById = new LruCache<>(maxSize, ttlMillis);
+        this.byClientId = new LruCache<>(maxSize, ttlMillis);
+        this.activeById = new LruCache<>(maxSize, ttlMillis);
+    }
+
+    @Override
+    public void save(Account account) {
+        delegate.save(account);
+        long clientId = account.getClientId();
+        evictClient(clientId);
+        UnitOfWork.afterCommit(() -> evictClient(clientId));
+    }
+
+    @Override
+    public Account findById(Long id) {
+        Account cached = byId.get(id);
+        if (cached != null) {
+            return copy(cached);
+        }
+        long generation = generation(id);
+        Account account = delegate.findById(id);
+        // findById retourne un compte vide (id = 0) si inexistant : on ne met pas en cache l'absence
+        if (account != null && account.getId() != 0L && !UnitOfWork.isActive()) {
+            synchronized (guard) {
+                if (generations[stripe(id)] == generation) {
+                    byId.put(id, copy(account));
+                }
+            }
+        }
+        return account;
+    }
+
+    @Override
+    public Map<Long, Account> findByIds(Collection<Long> ids) {
+        Map<Long, Account> accounts = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return accounts;
+        }
+        List<Long> absents = new ArrayList<>();
+        for (Long id : ids) {
+            Account cached = validById.get(id);
+            if (cached != null) {
+                accounts.put(id, copy(cached));
+            } else {
+                absents.add(id);
+            }
+        }
+        if (absents.isEmpty()) {
+            return accounts;
+        }
+        long[] before = new long[absents.size()];
+        synchronized (guard) {
+            for (int i = 0; i < before.length; i++) {
+                before[i] = generations[stripe(absents.get(i))];
+            }
+        }
+        Map<Long, Account> loaded = delegate.findByIds(absents);
+        if (!UnitOfWork.isActive()) {
+            synchronized (guard) {
+                for (int i = 0; i < before.length; i++) {
+                    Long id = absents.get(i);
+                    Account account = loaded.get(id);
+                    if (account != null && generations[stripe(id)] == before[i]) {
+                        validById.put(id, copy(account));
+                    }
+                }
+            }
+        }
+        accounts.putAll(loaded);
+        return accounts;
+    }
+
+    @Override
+    public List<Account> findByClientId(Long clientId) {
+        List<Account> cached = byClientId.get(clientId);
+        if (cached != null) {
+            return copyAll(cached);
+        }
+        long generation;
+        synchronized (guard) {
+            generation = clientsGeneration;
+        }
+        List<Account> accounts = delegate.findByClientId(clientId);
+        if (!UnitOfWork.isActive()) {
+            synchronized (guard) {
+                if (clientsGeneration == generation) {
+                    byClientId.put(clientId, copyAll(accounts));
+                }
+            }
+        }
+        return accounts;
+    }
+
+    @Override
+    public boolean update(Account account) {
+        boolean updated = delegate.update(account);
+        invalidate(account.getId(), account.getClientId());
+        return updated;
+    }
+
+    @Override
+    public void updateSolde(Long accountId, BigDecimal nouveauSolde) {
+        delegate.updateSolde(accountId, nouveauSolde);
+        invalidate(accountId, 0L);
+    }
+
+    @Override
+    public BigDecimal applyDelta(Long accountId, BigDecimal delta) {
+        BigDecimal nouveauSolde = delegate.applyDelta(accountId, delta);
+        invalidate(accountId, 0L);
+        return nouveauSolde;
+    }
+
+    @Override
+    public boolean isAccountActive(Long accountId) {
+        Boolean cached = activeById.get(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generation(accountId);
+        boolean active = delegate.isAccountActive(accountId);
+        if (!UnitOfWork.isActive()) {
+            synchronized (guard) {
+                if (generations[stripe(accountId)] == generation) {
+                    activeById.put(accountId, active);
+                }
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Statistiques des 4 caches (findById, findByIds, findByClientId, isAccountActive).
+     */
+    public Map<String, LruCache.Stats> getStats() {
+        Map<String, LruCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("findById", byId.getStats());
+        stats.put("findByIds", validById.getStats());
+        stats.put("findByClientId", byClientId.getStats());
+        stats.put("isAccountActive", activeById.getStats());
+        return stats;
+    }
+
+    private void invalidate(long accountId, long clientIdHint) {
+        evict(accountId, clientIdHint);
+        UnitOfWork.afterCommit(() -> evict(accountId, clientIdHint));
+    }
+
+    private void evict(long accountId, long clientIdHint) {
+        synchronized (guard) {
+            generations[stripe(accountId)]++;
+            clientsGeneration++;
+            Account previous = byId.remove(accountId);
+            Account valid = validById.remove(accountId);
+            activeById.remove(accountId);
+            long clientId = clientIdHint != 0L ? clientIdHint
+                    : previous != null ? previous.getClientId()
+                    : valid != null ? valid.getClientId() : 0L;
+            if (clientId != 0L) {
+                byClientId.remove(clientId);
+            } else {
+                // Propriétaire inconnu : retirer les listes qui contiennent ce compte
+                byClientId.removeIf((cid, accounts) -> accounts.stream().anyMatch(a -> a.getId() == accountId));
+            }
+        }
+    }
+
+    private void evictClient(long clientId) {
+        synchronized (guard) {
+            clientsGeneration++;
+            byClientId.remove(clientId);
+        }
+    }
+
+    private long generation(long accountId) {
+        synchronized (guard) {
+            return generations[stripe(accountId)];
+        }
+    }
+
+    private static int stripe(long accountId) {
+        return (int) (accountId ^ (accountId >>> 32)) & (STRIPES - 1);
+    }
+
+    private static Account copy(Account source) {
+        Account account = new Account(source.getId(), source.getSolde(), source.getClientId(), source.getType());
+        account.setStatus(source.getStatus());
+        return account;
+    }
+
+    private static List<Account> copyAll(List<Account> source) {
+        List<Account> accounts = new ArrayList<>(source.size());
+        for (Account account : source) {
+            accounts.add(copy(account));
+        }
+        return accounts;
+    }
+}
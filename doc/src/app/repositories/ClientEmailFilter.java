@@ -0,0 +1,176 @@
+package app.repositories;
+
+import app.utils.BloomFilter;
+import app.utils.DatabaseConnection;
+import app.utils.UnitOfWork;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtre de Bloom des emails de clients actifs, devant ClientRepository.existsByEmail.
+ *
+ * À l'onboarding, presque tous les emails testés sont nouveaux : "absent du filtre" répond
+ * sans requête. "Peut-être présent" (vrai client ou faux positif ~1 %) passe par la base.
+ * - Chargé en tâche de fond au démarrage (lecture en streaming des emails) ; avant la fin
+ *   du chargement, toutes les vérifications passent par la base
+ * - Emails ajoutés à chaque save()/update() ; une suppression laisse l'email dans le filtre
+ *   (simple faux positif) jusqu'à la prochaine reconstruction
+ * - Reconstruit quand le nombre d'ajouts dépasse la capacité prévue
+ * - Un email inséré hors de l'application n'est pas dans le filtre : l'index unique
+ *   (doc/sql/010) refuse alors le doublon à l'INSERT
+ */
+public class ClientEmailFilter {
+
+    private static final long CAPACITE_MIN = 100_000;
+    private static final double FAUX_POSITIFS = 0.01;
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM client WHERE deleted_at IS NULL";
+    private static final String EMAILS_SQL = "SELECT lower(email) FROM client WHERE deleted_at IS NULL AND email IS NOT NULL";
+
+    private static volatile ClientEmailFilter instance = null;
+
+    // null tant que le premier chargement n'est pas terminé
+    private volatile BloomFilter filter;
+    // Filtre en cours de construction : reçoit aussi les ajouts pendant le chargement
+    private volatile BloomFilter building;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final LongAdder absents = new LongAdder();
+    private final LongAdder peutEtre = new LongAdder();
+    private final LongAdder fauxPositifs = new LongAdder();
+
+    /**
+     * Filtre partagé de l'application ; le premier chargement démarre en tâche de fond.
+     */
+    public static ClientEmailFilter getInstance() {
+        ClientEmailFilter f = instance;
+        if (f == null) {
+            synchronized (ClientEmailFilter.class) {
+                f = instance;
+                if (f == null) {
+                    f = new ClientEmailFilter();
+                    f.rebuildAsync();
+                    instance = f;
+                }
+            }
+        }
+        return f;
+    }
+
+    private ClientEmailFilter() {}
+
+    /**
+     * @return false si l'email n'appartient certainement à aucun client actif ; true sinon
+     *         (ou si le filtre n'est pas encore chargé)
+     */
+    public boolean mightExist(String email) {
+        BloomFilter f = filter;
+        if (f == null || email == null) {
+            return true;
+        }
+        if (!f.mightContain(normalize(email))) {
+            absents.increment();
+            return false;
+        }
+        peutEtre.increment();
+        return true;
+    }
+
+    /**
+     * Noter qu'un "peut-être présent" s'est révélé absent en base.
+     */
+    void recordFalsePositive() {
+        fauxPositifs.increment();
+    }
+
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        String cle = normalize(email);
+        BloomFilter b = building;
+        if (b != null) {
+            b.put(cle);
+        }
+        BloomFilter f = filter;
+        if (f != null) {
+            f.put(cle);
+            if (f.getInsertions() > f.getCapacite()) {
+                rebuildAsync();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    public long getAbsents() { return absents.sum(); }
+
+    public long getPeutEtre() { return peutEtre.sum(); }
+
+    public long getFauxPositifs() { return fauxPositifs.sum(); }
+
+    /**
+     * Reconstruire le filtre en tâche de fond (une seule reconstruction à la fois).
+     */
+    public void rebuildAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread t = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                // Filtre inchangé : les vérifications continuent (au besoin par la base)
+                System.err.println("Chargement du filtre d'emails clients : " + e.getMessage());
+            } finally {
+                building = null;
+                rebuilding.set(false);
+            }
+        }, "client-email-filter");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Curseur serveur : le driver PostgreSQL ne lit par paquets qu'en autocommit désactivé (UnitOfWork)
+     */
+    private void rebuild() {
+        UnitOfWork.run(() -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                long nb;
+                try (PreparedStatement stmt = conn.prepareStatement(COUNT_SQL);
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    nb = rs.getLong(1);
+                }
+                // Marge x2 : le filtre absorbe la croissance avant la prochaine reconstruction
+                BloomFilter nouveau = new BloomFilter(Math.max(CAPACITE_MIN, nb * 2), FAUX_POSITIFS);
+                building = nouveau;
+                try (PreparedStatement stmt = conn.prepareStatement(EMAILS_SQL)) {
+                    stmt.setFetchSize(FETCH_SIZE);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            nouveau.put(rs.getString(1));
+                        }
+                    }
+                }
+                filter = nouveau;
+            } catch (SQLException e) {
+                throw new RuntimeException("Erreur chargement des emails clients : " + e.getMessage(), e);
+            }
+        });
+    }
+
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -7,6 +7,12 @@ import app.utils.DatabaseConnection;
 
 public class ClientRepository implements ClientInterface {
 
+    // Violation de contrainte unique (PostgreSQL) et index unique des emails (doc/sql/010)
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String EMAIL_UNIQUE_INDEX = "uq_client_email_lower";
+
+    private final ClientEmailFilter emailFilter = ClientEmailFilter.getInstance();
+
     public void save(Client client) {
         String sql = "INSERT INTO client (nom, prenom, email, telephone, salaire) VALUES (?, ?, ?, ?, ?)";
         try (Connection connection = DatabaseConnection.getConnection();
@@ -30,7 +36,11 @@ public class ClientRepository implements ClientInterface {
                     throw new SQLException("Échec de la création du client, aucun ID obtenu.");
                 }
             }
+            emailFilter.add(client.getEmail());
         } catch (SQLException e) {
+            if (isEmailDuplicate(e)) {
+                throw new IllegalArgumentException("Un client avec cet email existe déjà.", e);
+            }
             throw new RuntimeException("Erreur lors de la sauvegarde du client: " + e.getMessage(), e);
         }
     }
@@ -42,14 +52,7 @@ public class ClientRepository implements ClientInterface {
             stmt.setString(1, email);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Client client = new Client();
-                    client.setId(rs.getLong("id"));
-                    client.setNom(rs.getString("nom"));
-                    client.setPrenom(rs.getString("prenom"));
-                    client.setEmail(rs.getString("email"));
-                    client.setTelephone(rs.getString("telephone"));
-                    client.setSalaire(rs.getBigDecimal("salaire"));
-                    return client;
+                    return mapClient(rs);
                 }
             }
         } catch (SQLException e) {
@@ -58,6 +61,55 @@ public class ClientRepository implements ClientInterface {
         return null;
     }
 
+    /**
+     * Filtre de Bloom d'abord : un email nouveau ne coûte aucune requête.
+     * Sinon EXISTS sur l'index unique lower(email) (doc/sql/010).
+     */
+    @Override
+    public boolean existsByEmail(String email) {
+        // Comme findByEmail(null) : aucun client sans email
+        if (email == null || email.isBlank()) {
+            return false;
+        }
+        if (!emailFilter.mightExist(email)) {
+            return false;
+        }
+        String sql = "SELECT EXISTS (SELECT 1 FROM client WHERE lower(email) = lower(?) AND deleted_at IS NULL)";
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, email.trim());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                boolean exists = rs.getBoolean(1);
+                if (!exists && emailFilter.isReady()) {
+                    emailFilter.recordFalsePositive();
+                }
+                return exists;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la vérification de l'email client: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Client findByAccountId(long accountId) {
+        String sql = "SELECT c.id, c.nom, c.prenom, c.email, c.telephone, c.salaire " +
+                "FROM account a JOIN client c ON c.id = a.\"clientId\" " +
+                "WHERE a.id = ? AND c.deleted_at IS NULL";
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setLong(1, accountId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapClient(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la recherche du client du compte " + accountId + ": " + e.getMessage(), e);
+        }
+        return null;
+    }
+
     @Override
     public java.util.List<Client> findAll() {
         String sql = "SELECT * FROM client WHERE deleted_at IS NULL";
@@ -66,14 +118,7 @@ public class ClientRepository implements ClientInterface {
              PreparedStatement stmt = connection.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                Client client = new Client();
-                client.setId(rs.getLong("id"));
-                client.setNom(rs.getString("nom"));
-                client.setPrenom(rs.getString("prenom"));
-                client.setEmail(rs.getString("email"));
-                client.setTelephone(rs.getString("telephone"));
-                client.setSalaire(rs.getBigDecimal("salaire"));
-                clients.add(client);
+                clients.add(mapClient(rs));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de la récupération des clients: " + e.getMessage(), e);
@@ -92,12 +137,30 @@ public class ClientRepository implements ClientInterface {
             stmt.setString(4, client.getTelephone());
             stmt.setBigDecimal(5, client.getSalaire());
             stmt.setLong(6, id);
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() > 0) {
+                emailFilter.add(client.getEmail());
+            }
         } catch (SQLException e) {
+            if (isEmailDuplicate(e)) {
+                throw new IllegalArgumentException("Un client avec cet email existe déjà.", e);
+            }
             throw new RuntimeException("Erreur lors de la mise à jour du client: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Doublon d'email uniquement si la violation porte sur l'index des emails : une autre
+     * contrainte unique garde le message d'erreur générique.
+     * Le nom de la contrainte figure dans le message du serveur quelle que soit sa langue.
+     */
+    private static boolean isEmailDuplicate(SQLException e) {
+        return UNIQUE_VIOLATION.equals(e.getSQLState())
+                && e.getMessage() != null && e.getMessage().contains(EMAIL_UNIQUE_INDEX);
+    }
+
+    /**
+     * L'email reste dans le filtre de Bloom (faux positif vérifié en base) jusqu'à sa reconstruction
+     */
     public void delete(Long id){
         String sql = "UPDATE client SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?";
         try (Connection connection = DatabaseConnection.getConnection();
@@ -108,4 +171,18 @@ public class ClientRepository implements ClientInterface {
             throw new RuntimeException("Erreur lors de la suppression logique du client: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Mapping ResultSet → Client
+     */
+    private Client mapClient(ResultSet rs) throws SQLException {
+        Client client = new Client();
+        client.setId(rs.getLong("id"));
+        client.setNom(rs.getString("nom"));
+        client.setPrenom(rs.getString("prenom"));
+        client.setEmail(rs.getString("email"));
+        client.setTelephone(rs.getString("telephone"));
+        client.setSalaire(rs.getBigDecimal("salaire"));
+        return client;
+    }
 }
\ No newline at end of file
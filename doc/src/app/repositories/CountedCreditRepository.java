@@ -0,0 +1,91 @@
+package app.repositories;
+
+import app.models.Credit;
+import app.models.Enums.CreditStatus;
+import app.repositories.interfaces.CreditInterface;
+import app.utils.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Décorateur de CreditInterface : countByAccountIdAndStatus lit le compteur maintenu
+ * par trigger (table credit_status_count, doc/sql/005) au lieu de compter les crédits.
+ *
+ * - Lecture par clé primaire (account_id, status) : O(1) quel que soit l'historique du compte
+ * - Les compteurs sont mis à jour par la base dans la transaction qui change le statut :
+ *   ils restent exacts même si un autre service (Manager) valide ou clôture un crédit
+ * - Toutes les autres opérations sont déléguées telles quelles
+ */
+public class CountedCreditRepository implements CreditInterface {
+
+    private static final String COUNT_SQL = "SELECT nb FROM credit_status_count WHERE account_id = ? AND status = ?::credit_status";
+    private static final String COUNT_STATUSES_SQL = "SELECT COALESCE(SUM(nb), 0) FROM credit_status_count " +
+            "WHERE account_id = ? AND status = ANY(?::credit_status[])";
+
+    private final CreditInterface delegate;
+
+    public CountedCreditRepository(CreditInterface delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Credit save(Credit credit) {
+        return delegate.save(credit);
+    }
+
+    @Override
+    public List<Credit> findByAccountId(long accountId) {
+        return delegate.findByAccountId(accountId);
+    }
+
+    @Override
+    public int updateStatus(Collection<Long> creditIds, CreditStatus statutAttendu, CreditStatus nouveauStatut) {
+        return delegate.updateStatus(creditIds, statutAttendu, nouveauStatut);
+    }
+
+    @Override
+    public int countByAccountIdAndStatus(long accountId, CreditStatus status) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_SQL)) {
+
+            stmt.setLong(1, accountId);
+            stmt.setString(2, status.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                // Pas de ligne : aucun crédit de ce statut n'a jamais existé pour le compte
+                return rs.next() ? rs.getInt("nb") : 0;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lecture compteur crédits pour accountId=" + accountId + " : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Somme des compteurs des statuts demandés : une lecture de quelques lignes par clé primaire.
+     */
+    @Override
+    public int countByAccountIdAndStatuses(long accountId, Set<CreditStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_STATUSES_SQL)) {
+
+            stmt.setLong(1, accountId);
+            stmt.setArray(2, conn.createArrayOf("text", statuses.stream().map(CreditStatus::toString).toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lecture compteurs crédits pour accountId=" + accountId + " : " + e.getMessage(), e);
+        }
+    }
+}
@@ -7,16 +7,22 @@ import app.models.Treller;
 import app.models.Account;
 import app.models.Enums.CreditStatus;
 import app.utils.DatabaseConnection;
+import app.utils.UnitOfWork;
 import java.sql.*;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
 
 /**
  * Implémentation pour les opérations sur Credit
  * CRITIQUE pour USE CASE 6 TELLER : Demande de crédit
  */
 public class CreditRepository implements CreditInterface {
+
+    // Taille maximale du tableau d'IDs passé à un UPDATE ... = ANY(?)
+    private static final int UPDATE_CHUNK_SIZE = 1_000;
     
     /**
      * MÉTHODE CRITIQUE : Enregistre demande de crédit TELLER (SANS TYPE)
@@ -117,4 +123,79 @@ public class CreditRepository implements CreditInterface {
         
         return credits;
     }
+
+    /**
+     * COUNT(*) servi par l'index partiel (account_id, status) de doc/sql/005
+     */
+    @Override
+    public int countByAccountIdAndStatus(long accountId, CreditStatus status) {
+        String sql = "SELECT COUNT(*) FROM credit WHERE account_id = ? AND status = ?::credit_status AND deleted_at IS NULL";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, accountId);
+            stmt.setString(2, status.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur comptage crédits par accountId : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int countByAccountIdAndStatuses(long accountId, Set<CreditStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return 0;
+        }
+        String sql = "SELECT COUNT(*) FROM credit WHERE account_id = ? AND status = ANY(?::credit_status[]) AND deleted_at IS NULL";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, accountId);
+            stmt.setArray(2, conn.createArrayOf("text", statuses.stream().map(CreditStatus::toString).toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur comptage crédits par accountId : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Changement de statut groupé : un UPDATE ... WHERE id = ANY(?) par paquet de UPDATE_CHUNK_SIZE,
+     * le tout dans une seule transaction. La condition sur le statut attendu rend l'appel rejouable.
+     */
+    @Override
+    public int updateStatus(Collection<Long> creditIds, CreditStatus statutAttendu, CreditStatus nouveauStatut) {
+        if (creditIds == null || creditIds.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE credit SET status = ?::credit_status " +
+                    "WHERE id = ANY(?) AND status = ?::credit_status AND deleted_at IS NULL";
+        List<Long> ids = new ArrayList<>(creditIds);
+
+        return UnitOfWork.execute(() -> {
+            int updated = 0;
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < ids.size(); i += UPDATE_CHUNK_SIZE) {
+                    List<Long> chunk = ids.subList(i, Math.min(i + UPDATE_CHUNK_SIZE, ids.size()));
+                    stmt.setString(1, nouveauStatut.toString());
+                    stmt.setArray(2, conn.createArrayOf("bigint", chunk.toArray()));
+                    stmt.setString(3, statutAttendu.toString());
+                    updated += stmt.executeUpdate();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Erreur changement de statut des crédits : " + e.getMessage(), e);
+            }
+            return updated;
+        });
+    }
 }
\ No newline at end of file
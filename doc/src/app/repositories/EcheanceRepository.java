@@ -0,0 +1,365 @@
+package app.repositories;
+
+import app.models.Credit;
+import app.models.Echeance;
+import app.models.EcheancierProgress;
+import app.repositories.interfaces.EcheanceInterface;
+import app.utils.DatabaseConnection;
+import app.utils.UnitOfWork;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Implémentation pour les échéances de crédit (table echeance, doc/sql/002)
+ * Insertion par lots pour la génération d'échéanciers complets (jusqu'à 360 mensualités)
+ */
+public class EcheanceRepository implements EcheanceInterface {
+
+    private static final String INSERT_SQL = "INSERT INTO echeance (credit_id, numero, dateprevue, montantprincipal, interet, penalite, payee, datepaiement) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_COLUMNS = "SELECT id, credit_id, numero, dateprevue, montantprincipal, interet, penalite, payee, datepaiement FROM echeance ";
+    private static final int BATCH_SIZE = 1_000;
+
+    @Override
+    public void save(Echeance echeance) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            bindInsert(stmt, echeance);
+            int rows = stmt.executeUpdate();
+            if (rows == 0) {
+                throw new RuntimeException("Échec sauvegarde échéance");
+            }
+
+            try (ResultSet gk = stmt.getGeneratedKeys()) {
+                if (gk.next()) {
+                    echeance.setId(gk.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur sauvegarde échéance : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * addBatch()/executeBatch() par paquets de BATCH_SIZE, un seul COMMIT (UnitOfWork)
+     */
+    @Override
+    public void saveAll(List<Echeance> echeances) {
+        if (echeances == null || echeances.isEmpty()) {
+            return;
+        }
+        UnitOfWork.run(() -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                int pending = 0;
+                for (Echeance echeance : echeances) {
+                    bindInsert(stmt, echeance);
+                    stmt.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        stmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    stmt.executeBatch();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Erreur sauvegarde lot d'échéances : " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public Echeance findById(long id) {
+        String sql = SELECT_COLUMNS + "WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapEcheance(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur recherche échéance id=" + id + " : " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    @Override
+    public List<Echeance> findByCreditId(long creditId) {
+        return query(SELECT_COLUMNS + "WHERE credit_id = ? ORDER BY numero",
+                stmt -> stmt.setLong(1, creditId),
+                "Erreur récupération échéances pour creditId=" + creditId);
+    }
+
+    @Override
+    public List<Echeance> findUnpaidByCreditId(long creditId) {
+        return query(SELECT_COLUMNS + "WHERE credit_id = ? AND payee = false ORDER BY numero",
+                stmt -> stmt.setLong(1, creditId),
+                "Erreur récupération échéances impayées pour creditId=" + creditId);
+    }
+
+    @Override
+    public List<Echeance> findOverdueBefore(LocalDate dateReference) {
+        return query(SELECT_COLUMNS + "WHERE payee = false AND dateprevue < ? ORDER BY dateprevue, id",
+                stmt -> stmt.setDate(1, Date.valueOf(dateReference)),
+                "Erreur récupération échéances en retard");
+    }
+
+    @Override
+    public List<Echeance> findUpcomingBetween(LocalDate dateDebut, LocalDate dateFin) {
+        return query(SELECT_COLUMNS + "WHERE payee = false AND dateprevue BETWEEN ? AND ? ORDER BY dateprevue, id",
+                stmt -> {
+                    stmt.setDate(1, Date.valueOf(dateDebut));
+                    stmt.setDate(2, Date.valueOf(dateFin));
+                },
+                "Erreur récupération échéances à venir");
+    }
+
+    @Override
+    public void update(Echeance echeance) {
+        String sql = "UPDATE echeance SET numero = ?, dateprevue = ?, montantprincipal = ?, interet = ?, penalite = ?, payee = ?, datepaiement = ? WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, echeance.getNumero());
+            stmt.setDate(2, Date.valueOf(echeance.getDatePrevue()));
+            stmt.setBigDecimal(3, echeance.getMontantPrincipal());
+            stmt.setBigDecimal(4, echeance.getInteret());
+            stmt.setBigDecimal(5, echeance.getPenalite() == null ? BigDecimal.ZERO : echeance.getPenalite());
+            stmt.setBoolean(6, echeance.isPayee());
+            stmt.setDate(7, echeance.getDatePaiement() == null ? null : Date.valueOf(echeance.getDatePaiement()));
+            stmt.setLong(8, echeance.getId());
+            if (stmt.executeUpdate() == 0) {
+                throw new RuntimeException("Échéance inexistante : " + echeance.getId());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur mise à jour échéance : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void markAsPaid(long echeanceId, LocalDate datePaiement) {
+        String sql = "UPDATE echeance SET payee = true, datepaiement = ? WHERE id = ? AND payee = false";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(datePaiement));
+            stmt.setLong(2, echeanceId);
+            if (stmt.executeUpdate() == 0) {
+                throw new RuntimeException("Échéance inexistante ou déjà payée : " + echeanceId);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur paiement échéance : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public BigDecimal getTotalUnpaidAmount(long creditId) {
+        String sql = "SELECT COALESCE(SUM(montantprincipal + interet + penalite), 0) AS total FROM echeance WHERE credit_id = ? AND payee = false";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, creditId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getBigDecimal("total");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur calcul impayés pour creditId=" + creditId + " : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<Long, BigDecimal> getTotalUnpaidAmounts(Collection<Long> creditIds) {
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        if (creditIds == null || creditIds.isEmpty()) {
+            return totals;
+        }
+        for (Long creditId : creditIds) {
+            totals.put(creditId, BigDecimal.ZERO);
+        }
+        String sql = "SELECT credit_id, SUM(montantprincipal + interet + penalite) AS total FROM echeance " +
+                "WHERE credit_id = ANY(?) AND payee = false GROUP BY credit_id";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", creditIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(rs.getLong("credit_id"), rs.getBigDecimal("total"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur calcul impayés groupés : " + e.getMessage(), e);
+        }
+        return totals;
+    }
+
+    @Override
+    public int deleteUnpaidByCreditIds(Collection<Long> creditIds) {
+        if (creditIds == null || creditIds.isEmpty()) {
+            return 0;
+        }
+        String sql = "DELETE FROM echeance WHERE credit_id = ANY(?) AND payee = false";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", creditIds.toArray()));
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur suppression échéances impayées : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<Long, EcheancierProgress> findProgressByCreditIds(Collection<Long> creditIds) {
+        Map<Long, EcheancierProgress> progress = new HashMap<>();
+        if (creditIds == null || creditIds.isEmpty()) {
+            return progress;
+        }
+        String sql = "SELECT credit_id, " +
+                "COUNT(*) FILTER (WHERE payee) AS nb_payees, " +
+                "COALESCE(MAX(numero) FILTER (WHERE payee), 0) AS dernier_paye, " +
+                "COALESCE(SUM(montantprincipal) FILTER (WHERE payee), 0) AS capital_rembourse, " +
+                "MIN(dateprevue) AS premiere_date " +
+                "FROM echeance WHERE credit_id = ANY(?) GROUP BY credit_id";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", creditIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long creditId = rs.getLong("credit_id");
+                    progress.put(creditId, new EcheancierProgress(creditId, rs.getInt("nb_payees"),
+                            rs.getInt("dernier_paye"), rs.getBigDecimal("capital_rembourse"), rs.getDate("premiere_date").toLocalDate()));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur avancement des échéanciers : " + e.getMessage(), e);
+        }
+        return progress;
+    }
+
+    @Override
+    public long[] findOverdueCreditIdBounds(LocalDate dateReference) {
+        String sql = "SELECT MIN(credit_id) AS min_id, MAX(credit_id) AS max_id FROM echeance WHERE payee = false AND dateprevue < ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(dateReference));
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                long min = rs.getLong("min_id");
+                if (rs.wasNull()) {
+                    return null;
+                }
+                return new long[] {min, rs.getLong("max_id")};
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur bornes des crédits en retard : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Echeance> findPenaltyCandidates(LocalDate dateMetier, long creditIdMin, long creditIdMax) {
+        return query(SELECT_COLUMNS + "WHERE payee = false AND dateprevue < ? AND credit_id BETWEEN ? AND ? " +
+                        "AND penalite_date IS DISTINCT FROM ?",
+                stmt -> {
+                    stmt.setDate(1, Date.valueOf(dateMetier));
+                    stmt.setLong(2, creditIdMin);
+                    stmt.setLong(3, creditIdMax);
+                    stmt.setDate(4, Date.valueOf(dateMetier));
+                },
+                "Erreur récupération échéances à pénaliser [" + creditIdMin + ", " + creditIdMax + "]");
+    }
+
+    /**
+     * Pénalité absolue (pas d'incrément) + penalite_date : rejouer la même date ne change rien
+     */
+    @Override
+    public int updatePenalites(List<Echeance> echeances, LocalDate dateMetier) {
+        if (echeances == null || echeances.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE echeance SET penalite = ?, penalite_date = ? WHERE id = ? AND payee = false";
+        return UnitOfWork.execute(() -> {
+            int updated = 0;
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                Date date = Date.valueOf(dateMetier);
+                int pending = 0;
+                for (Echeance echeance : echeances) {
+                    stmt.setBigDecimal(1, echeance.getPenalite());
+                    stmt.setDate(2, date);
+                    stmt.setLong(3, echeance.getId());
+                    stmt.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        updated += sum(stmt.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    updated += sum(stmt.executeBatch());
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Erreur mise à jour des pénalités : " + e.getMessage(), e);
+            }
+            return updated;
+        });
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // SUCCESS_NO_INFO (-2) : ligne traitée, nombre inconnu
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return total;
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private List<Echeance> query(String sql, Binder binder, String errorMessage) {
+        List<Echeance> list = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            binder.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapEcheance(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage + " : " + e.getMessage(), e);
+        }
+        return list;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Echeance echeance) throws SQLException {
+        stmt.setLong(1, echeance.getCreditIdCompat());
+        stmt.setInt(2, echeance.getNumero());
+        stmt.setDate(3, Date.valueOf(echeance.getDatePrevue()));
+        stmt.setBigDecimal(4, echeance.getMontantPrincipal());
+        stmt.setBigDecimal(5, echeance.getInteret());
+        stmt.setBigDecimal(6, echeance.getPenalite() == null ? BigDecimal.ZERO : echeance.getPenalite());
+        stmt.setBoolean(7, echeance.isPayee());
+        stmt.setDate(8, echeance.getDatePaiement() == null ? null : Date.valueOf(echeance.getDatePaiement()));
+    }
+
+    /**
+     * Mapping ResultSet → Echeance (Credit minimal avec juste l'ID)
+     */
+    private Echeance mapEcheance(ResultSet rs) throws SQLException {
+        Credit credit = new Credit();
+        credit.setId(rs.getLong("credit_id"));
+        Echeance echeance = new Echeance(rs.getLong("id"), credit, rs.getInt("numero"),
+                rs.getDate("dateprevue").toLocalDate(), rs.getBigDecimal("montantprincipal"), rs.getBigDecimal("interet"));
+        echeance.setPenalite(rs.getBigDecimal("penalite"));
+        echeance.setPayee(rs.getBoolean("payee"));
+        Date datePaiement = rs.getDate("datepaiement");
+        if (datePaiement != null) echeance.setDatePaiement(datePaiement.toLocalDate());
+        return echeance;
+    }
+}
@@ -0,0 +1,68 @@
+package app.repositories;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Chaîne de hachage des entrées d'historique, une chaîne par compte.
+ *
+ * hash(n) = SHA-256(hash(n-1) | accountId | seq | date | auditorId | description)
+ * avec hash(0) = 32 octets à zéro. Champs encodés en binaire à longueur fixe ou préfixée :
+ * deux contenus différents ne peuvent pas produire la même suite d'octets.
+ *
+ * Partagé par HistoriqueRepository (écriture) et HistoriqueChainVerifier (vérification).
+ */
+final class HistoriqueChain {
+
+    static final byte[] GENESIS = new byte[32];
+
+    private HistoriqueChain() {}
+
+    /**
+     * MessageDigest n'est pas thread-safe : une instance par thread / par traitement.
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Date ramenée à la précision d'un timestamp PostgreSQL (microseconde) :
+     * la valeur hachée est exactement celle qui sera relue en base.
+     */
+    static LocalDateTime normalize(LocalDateTime date) {
+        return date == null ? null : date.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    static byte[] hash(MessageDigest md, byte[] prevHash, long accountId, long seq,
+                       LocalDateTime date, Long auditorId, String description) {
+        byte[] text = description == null ? new byte[0] : description.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer fields = ByteBuffer.allocate(8 + 8 + 1 + 8 + 4 + 1 + 8 + 1 + 4);
+        fields.putLong(accountId).putLong(seq);
+        if (date == null) {
+            fields.put((byte) 0).putLong(0).putInt(0);
+        } else {
+            fields.put((byte) 1).putLong(date.toEpochSecond(ZoneOffset.UTC)).putInt(date.getNano());
+        }
+        if (auditorId == null) {
+            fields.put((byte) 0).putLong(0);
+        } else {
+            fields.put((byte) 1).putLong(auditorId);
+        }
+        fields.put(description == null ? (byte) 0 : (byte) 1).putInt(text.length);
+
+        md.reset();
+        md.update(prevHash);
+        md.update(fields.array());
+        md.update(text);
+        return md.digest();
+    }
+}
@@ -0,0 +1,284 @@
+package app.repositories;
+
+import app.models.HistoriqueChainReport;
+import app.models.HistoriqueChainReport.BrokenLink;
+import app.utils.DatabaseConnection;
+import app.utils.UnitOfWork;
+
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification parallèle des chaînes de hachage de l'historique (doc/sql/007).
+ *
+ * Les comptes sont répartis en tranches d'IDs traitées en parallèle. Chaque tranche est lue
+ * en streaming (curseur serveur) dans l'ordre (accountid, seq) : mémoire constante, une seule
+ * lecture de chaque entrée, le calcul SHA-256 suit le débit de lecture.
+ *
+ * Pour chaque compte : seq continu depuis 1, prev_hash = hash de l'entrée précédente,
+ * hash recalculé = hash stocké, dernière entrée = tête de chaîne (historique_chain_head).
+ * Une suppression, une insertion, une modification ou une troncature est donc détectée.
+ *
+ * Une entrée insérée sans passer par HistoriqueRepository n'a pas de seq : toute entrée
+ * sans seq d'id supérieur au point de bascule de la migration (historique_chain_cutover)
+ * est signalée. Seules les entrées antérieures à la migration restent hors chaîne.
+ */
+public class HistoriqueChainVerifier {
+
+    private static final int FETCH_SIZE = 10_000;
+    // Borné par la taille du pool de connexions
+    private static final int PARALLELISME = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+    private static final int PARTITIONS_PAR_THREAD = 8;
+
+    private static final String BOUNDS_SQL = "SELECT MIN(accountid) AS min_id, MAX(accountid) AS max_id FROM historique_chain_head";
+    private static final String HEADS_SQL = "SELECT accountid, seq, hash FROM historique_chain_head WHERE accountid BETWEEN ? AND ?";
+    private static final String ENTRIES_SQL = "SELECT id, accountid, seq, date, auditor_id, description, prev_hash, hash " +
+            "FROM historique WHERE accountid BETWEEN ? AND ? AND seq IS NOT NULL ORDER BY accountid, seq";
+    private static final String HORS_CHAINE_SQL = "SELECT h.id, h.accountid FROM historique h " +
+            "JOIN historique_chain_cutover c ON h.id > c.id_max WHERE h.seq IS NULL ORDER BY h.id";
+
+    /**
+     * Vérifier les chaînes de tous les comptes.
+     * @return Rapport : entrées et comptes vérifiés, premier maillon rompu de chaque compte altéré
+     */
+    public HistoriqueChainReport verify() {
+        long debut = System.nanoTime();
+        List<BrokenLink> horsChaine = findUnchained();
+        long[] bornes = findBounds();
+        if (bornes == null) {
+            return new HistoriqueChainReport(0, 0, List.of(), horsChaine, elapsedMs(debut));
+        }
+
+        long etendue = bornes[1] - bornes[0] + 1;
+        long nbTranches = (long) PARALLELISME * PARTITIONS_PAR_THREAD;
+        long largeur = Math.max(1, (etendue + nbTranches - 1) / nbTranches);
+
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISME);
+        try {
+            List<Future<RangeResult>> tranches = new ArrayList<>();
+            for (long min = bornes[0]; min <= bornes[1]; min += largeur) {
+                long trancheMin = min;
+                long trancheMax = Math.min(min + largeur - 1, bornes[1]);
+                tranches.add(executor.submit(() -> verifyRange(trancheMin, trancheMax)));
+            }
+            long entrees = 0;
+            long comptes = 0;
+            List<BrokenLink> rompus = new ArrayList<>();
+            for (Future<RangeResult> tranche : tranches) {
+                RangeResult r = tranche.get();
+                entrees += r.entrees;
+                comptes += r.comptes;
+                rompus.addAll(r.rompus);
+            }
+            rompus.sort(Comparator.comparingLong(BrokenLink::getAccountId));
+            return new HistoriqueChainReport(entrees, comptes, rompus, horsChaine, elapsedMs(debut));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Vérification de l'historique interrompue", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur vérification de l'historique : " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long[] findBounds() {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(BOUNDS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            long min = rs.getLong("min_id");
+            if (rs.wasNull()) {
+                return null;
+            }
+            return new long[] {min, rs.getLong("max_id")};
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur bornes des chaînes d'historique : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Entrées sans seq postérieures à la migration, lues en streaming (index partiel sur id)
+     */
+    private List<BrokenLink> findUnchained() {
+        return UnitOfWork.execute(() -> {
+            List<BrokenLink> horsChaine = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(HORS_CHAINE_SQL)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        horsChaine.add(new BrokenLink(rs.getLong("accountid"), 0, rs.getLong("id"),
+                                "entrée insérée hors chaîne (seq absent)"));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Erreur recherche des entrées hors chaîne : " + e.getMessage(), e);
+            }
+            return horsChaine;
+        });
+    }
+
+    /**
+     * Têtes et entrées lues dans un même instantané (REPEATABLE READ) : append() écrit les entrées
+     * et la tête dans une seule transaction, un ajout concurrent est donc vu en entier ou pas du tout.
+     * Transaction explicite : le curseur serveur du driver PostgreSQL ne lit par paquets
+     * qu'en autocommit désactivé.
+     */
+    private RangeResult verifyRange(long accountMin, long accountMax) {
+        RangeResult result = new RangeResult();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new RuntimeException("Base indisponible pour la vérification de l'historique");
+            }
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                Map<Long, Object[]> heads = loadHeads(conn, accountMin, accountMax);
+                MessageDigest md = HistoriqueChain.newDigest();
+
+                try (PreparedStatement stmt = conn.prepareStatement(ENTRIES_SQL)) {
+                    stmt.setFetchSize(FETCH_SIZE);
+                    stmt.setLong(1, accountMin);
+                    stmt.setLong(2, accountMax);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        AccountState state = null;
+                        while (rs.next()) {
+                            long accountId = rs.getLong("accountid");
+                            if (state == null || state.accountId != accountId) {
+                                if (state != null) {
+                                    finish(state, heads.remove(state.accountId), result);
+                                }
+                                state = new AccountState(accountId);
+                            }
+                            result.entrees++;
+                            if (state.rompu) {
+                                continue;
+                            }
+                            check(state, rs, md, result);
+                        }
+                        if (state != null) {
+                            finish(state, heads.remove(state.accountId), result);
+                        }
+                    }
+                }
+
+                // Têtes sans aucune entrée : toute la chaîne a disparu
+                for (Map.Entry<Long, Object[]> head : heads.entrySet()) {
+                    long seq = (Long) head.getValue()[0];
+                    if (seq > 0) {
+                        result.comptes++;
+                        result.rompus.add(new BrokenLink(head.getKey(), 1, 0, "chaîne absente (" + seq + " entrées attendues)"));
+                    }
+                }
+                conn.commit();
+            } finally {
+                // Le pool ne rétablit que l'autocommit : l'isolation est remise à sa valeur par défaut ici
+                conn.rollback();
+                conn.setAutoCommit(true);
+                conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lecture des chaînes [" + accountMin + ", " + accountMax + "] : " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    private void check(AccountState state, ResultSet rs, MessageDigest md, RangeResult result) throws SQLException {
+        long id = rs.getLong("id");
+        long seq = rs.getLong("seq");
+        byte[] prevHash = rs.getBytes("prev_hash");
+        byte[] hash = rs.getBytes("hash");
+
+        if (seq != state.seq + 1) {
+            broken(state, result, state.seq + 1, seq > state.seq + 1 ? 0 : id,
+                    seq > state.seq + 1 ? "entrée(s) supprimée(s) avant seq " + seq : "seq dupliqué");
+            return;
+        }
+        if (!Arrays.equals(prevHash, state.hash)) {
+            broken(state, result, seq, id, "prev_hash ne correspond pas à l'entrée précédente");
+            return;
+        }
+        Timestamp ts = rs.getTimestamp("date");
+        long auditorId = rs.getLong("auditor_id");
+        Long auditor = rs.wasNull() ? null : auditorId;
+        byte[] attendu = HistoriqueChain.hash(md, state.hash, state.accountId, seq,
+                ts == null ? null : ts.toLocalDateTime(), auditor, rs.getString("description"));
+        if (!Arrays.equals(attendu, hash)) {
+            broken(state, result, seq, id, "contenu modifié (hash recalculé différent)");
+            return;
+        }
+        state.seq = seq;
+        state.hash = hash;
+    }
+
+    private void finish(AccountState state, Object[] head, RangeResult result) {
+        result.comptes++;
+        if (state.rompu) {
+            return;
+        }
+        if (head == null) {
+            broken(state, result, state.seq, 0, "tête de chaîne absente");
+            return;
+        }
+        long headSeq = (Long) head[0];
+        if (headSeq != state.seq || !Arrays.equals((byte[]) head[1], state.hash)) {
+            broken(state, result, state.seq + 1, 0, "chaîne tronquée (tête à seq " + headSeq + ")");
+        }
+    }
+
+    private void broken(AccountState state, RangeResult result, long seq, long id, String raison) {
+        state.rompu = true;
+        result.rompus.add(new BrokenLink(state.accountId, seq, id, raison));
+    }
+
+    private Map<Long, Object[]> loadHeads(Connection conn, long accountMin, long accountMax) throws SQLException {
+        Map<Long, Object[]> heads = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(HEADS_SQL)) {
+            stmt.setLong(1, accountMin);
+            stmt.setLong(2, accountMax);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    heads.put(rs.getLong("accountid"), new Object[] {rs.getLong("seq"), rs.getBytes("hash")});
+                }
+            }
+        }
+        return heads;
+    }
+
+    private static long elapsedMs(long debutNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debutNanos);
+    }
+
+    private static final class AccountState {
+        final long accountId;
+        long seq = 0;
+        byte[] hash = HistoriqueChain.GENESIS;
+        boolean rompu = false;
+
+        AccountState(long accountId) {
+            this.accountId = accountId;
+        }
+    }
+
+    private static final class RangeResult {
+        long entrees;
+        long comptes;
+        final List<BrokenLink> rompus = new ArrayList<>();
+    }
+}
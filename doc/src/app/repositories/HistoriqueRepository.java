@@ -4,11 +4,18 @@ import app.repositories.interfaces.HistoriqueInterface;
 import app.models.Historique;
 import app.models.Auditor;
 import app.utils.DatabaseConnection;
+import app.utils.UnitOfWork;
 
+import java.security.MessageDigest;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Implémentation pour l'historisation des opérations
@@ -17,70 +24,187 @@ import java.util.List;
  */
 public class HistoriqueRepository implements HistoriqueInterface {
 
+    private static final String INSERT_SQL = "INSERT INTO historique (description, date, accountid, auditor_id, seq, prev_hash, hash) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INIT_HEADS_SQL = "INSERT INTO historique_chain_head (accountid, seq, hash) " +
+            "SELECT unnest(?::bigint[]), 0, ? ON CONFLICT (accountid) DO NOTHING";
+    // ORDER BY : verrous pris dans l'ordre des IDs, deux lots concurrents ne s'interbloquent pas
+    private static final String LOCK_HEADS_SQL = "SELECT accountid, seq, hash FROM historique_chain_head " +
+            "WHERE accountid = ANY(?) ORDER BY accountid FOR UPDATE";
+    private static final String UPDATE_HEAD_SQL = "UPDATE historique_chain_head SET seq = ?, hash = ? WHERE accountid = ?";
+
+    private final AuditorDirectory auditorDirectory;
+
+    public HistoriqueRepository() {
+        this(AuditorDirectory.getInstance());
+    }
+
+    public HistoriqueRepository(AuditorDirectory auditorDirectory) {
+        this.auditorDirectory = auditorDirectory;
+    }
+
+    /**
+     * Enregistre l'entrée chaînée (seq, prev_hash, hash) : voir append()
+     */
     @Override
     public Historique save(Historique historique) {
-        String sql = "INSERT INTO historique (description, date, accountid, auditor_id) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        UnitOfWork.run(() -> append(List.of(historique), true, "Erreur sauvegarde historique"));
+        return historique;
+    }
+
+    /**
+     * Un seul executeBatch() : avec reWriteBatchedInserts, un INSERT multi-valeurs
+     */
+    @Override
+    public void saveAll(List<Historique> historiques) {
+        if (historiques == null || historiques.isEmpty()) {
+            return;
+        }
+        UnitOfWork.run(() -> append(historiques, false, "Erreur sauvegarde lot d'historique"));
+    }
+
+    /**
+     * Chaînage incrémental par compte, dans la transaction courante :
+     * 1. verrou des têtes de chaîne des comptes concernés (historique_chain_head, dans l'ordre des IDs)
+     * 2. seq / prev_hash / hash calculés en mémoire à partir de la tête, dans l'ordre de la liste
+     * 3. INSERT des entrées puis mise à jour des têtes, en batch
+     * Le coût ne dépend pas de la longueur de l'historique : seule la tête est relue.
+     */
+    private void append(List<Historique> historiques, boolean returnKeys, String errorMessage) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Map<Long, ChainHead> heads = lockHeads(conn, historiques);
+
+            MessageDigest md = HistoriqueChain.newDigest();
+            for (Historique h : historiques) {
+                h.setDate(HistoriqueChain.normalize(h.getDate()));
+                ChainHead head = heads.get(h.getAccountId());
+                head.seq++;
+                h.setSeq(head.seq);
+                h.setPrevHash(head.hash);
+                head.hash = HistoriqueChain.hash(md, head.hash, h.getAccountId(), head.seq, h.getDate(),
+                        h.getAuditor() == null ? null : h.getAuditor().getId(), h.getDescription());
+                h.setHash(head.hash);
+            }
 
-            stmt.setString(1, historique.getDescription());
-            stmt.setTimestamp(2, Timestamp.valueOf(historique.getDate()));
-            stmt.setLong(3, historique.getAccountId());
-            if (historique.getAuditor() != null) {
-                stmt.setLong(4, historique.getAuditor().getId());
+            if (returnKeys) {
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Historique h : historiques) {
+                        bindInsert(stmt, h);
+                        if (stmt.executeUpdate() == 0) {
+                            throw new RuntimeException("Échec sauvegarde historique");
+                        }
+                        try (ResultSet gk = stmt.getGeneratedKeys()) {
+                            if (gk.next()) {
+                                h.setId(gk.getLong(1));
+                            }
+                        }
+                    }
+                }
             } else {
-                stmt.setNull(4, Types.BIGINT);
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                    for (Historique h : historiques) {
+                        bindInsert(stmt, h);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
             }
 
-            int rows = stmt.executeUpdate();
-            if (rows == 0) {
-                throw new RuntimeException("Échec sauvegarde historique");
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_HEAD_SQL)) {
+                for (Map.Entry<Long, ChainHead> e : heads.entrySet()) {
+                    stmt.setLong(1, e.getValue().seq);
+                    stmt.setBytes(2, e.getValue().hash);
+                    stmt.setLong(3, e.getKey());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
             }
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage + " : " + e.getMessage(), e);
+        }
+    }
 
-            try (ResultSet gk = stmt.getGeneratedKeys()) {
-                if (gk.next()) {
-                    historique.setId(gk.getLong(1));
+    /**
+     * Crée les têtes manquantes (seq 0, hash GENESIS) puis les verrouille toutes en une requête.
+     */
+    private Map<Long, ChainHead> lockHeads(Connection conn, List<Historique> historiques) throws SQLException {
+        Set<Long> accountIds = new TreeSet<>();
+        for (Historique h : historiques) {
+            accountIds.add(h.getAccountId());
+        }
+        Array ids = conn.createArrayOf("bigint", accountIds.toArray());
+        try (PreparedStatement stmt = conn.prepareStatement(INIT_HEADS_SQL)) {
+            stmt.setArray(1, ids);
+            stmt.setBytes(2, HistoriqueChain.GENESIS);
+            stmt.executeUpdate();
+        }
+        Map<Long, ChainHead> heads = new TreeMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_HEADS_SQL)) {
+            stmt.setArray(1, ids);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    heads.put(rs.getLong("accountid"), new ChainHead(rs.getLong("seq"), rs.getBytes("hash")));
                 }
             }
+        }
+        return heads;
+    }
 
-            return historique;
+    private static final class ChainHead {
+        long seq;
+        byte[] hash;
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Erreur sauvegarde historique : " + e.getMessage(), e);
+        ChainHead(long seq, byte[] hash) {
+            this.seq = seq;
+            this.hash = hash;
         }
     }
 
     /**
      * Récupère l'historique complet d'un compte trié par date descendante
+     * Colonnes d'historique seules ; noms des auditeurs résolus par AuditorDirectory
      */
     public List<Historique> findByAccountId(long accountId) {
-        String sql = "SELECT h.id, h.description, h.date, h.accountid, h.auditor_id, a.fullname as auditor_name " +
-                "FROM historique h LEFT JOIN auditor a ON h.auditor_id = a.id " +
-                "WHERE h.accountid = ? AND h.date IS NOT NULL ORDER BY h.date DESC";
+        String sql = "SELECT id, description, date, accountid, auditor_id FROM historique " +
+                "WHERE accountid = ? AND date IS NOT NULL ORDER BY date DESC";
         List<Historique> list = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, accountId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Historique h = new Historique();
-                    h.setId(rs.getLong("id"));
-                    h.setDescription(rs.getString("description"));
-                    Timestamp ts = rs.getTimestamp("date");
-                    if (ts != null) h.setDate(ts.toLocalDateTime());
-                    h.setAccountId(rs.getLong("accountid"));
-                    long auditorId = rs.getLong("auditor_id");
-                    if (!rs.wasNull()) {
-                        Auditor auditor = new Auditor();
-                        auditor.setId(auditorId);
-                        h.setAuditor(auditor);
-                    }
-                    list.add(h);
+                    list.add(mapHistorique(rs));
                 }
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erreur récupération historique pour accountId=" + accountId + " : " + e.getMessage(), e);
         }
+        resolveAuditorNames(list);
+        return list;
+    }
+
+    /**
+     * Historique d'un compte sur [debut, fin[ : bornes sur date, élagage des partitions mensuelles
+     */
+    @Override
+    public List<Historique> findByAccountIdBetween(long accountId, LocalDateTime debut, LocalDateTime fin) {
+        String sql = "SELECT id, description, date, accountid, auditor_id FROM historique " +
+                "WHERE accountid = ? AND date >= ? AND date < ? ORDER BY date DESC";
+        List<Historique> list = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, accountId);
+            stmt.setTimestamp(2, Timestamp.valueOf(debut));
+            stmt.setTimestamp(3, Timestamp.valueOf(fin));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapHistorique(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur récupération historique sur période pour accountId=" + accountId + " : " + e.getMessage(), e);
+        }
+        resolveAuditorNames(list);
         return list;
     }
 
@@ -127,4 +251,54 @@ public class HistoriqueRepository implements HistoriqueInterface {
         return save(h);
     }
 
-}
\ No newline at end of file
+    /**
+     * Noms des auditeurs : une consultation de l'annuaire pour les IDs distincts de la liste
+     */
+    private void resolveAuditorNames(List<Historique> list) {
+        Set<Long> auditorIds = new HashSet<>();
+        for (Historique h : list) {
+            if (h.getAuditor() != null) {
+                auditorIds.add(h.getAuditor().getId());
+            }
+        }
+        if (auditorIds.isEmpty()) {
+            return;
+        }
+        Map<Long, String> names = auditorDirectory.getNames(auditorIds);
+        for (Historique h : list) {
+            if (h.getAuditor() != null) {
+                h.getAuditor().setFullName(names.get(h.getAuditor().getId()));
+            }
+        }
+    }
+
+    private Historique mapHistorique(ResultSet rs) throws SQLException {
+        Historique h = new Historique();
+        h.setId(rs.getLong("id"));
+        h.setDescription(rs.getString("description"));
+        Timestamp ts = rs.getTimestamp("date");
+        if (ts != null) h.setDate(ts.toLocalDateTime());
+        h.setAccountId(rs.getLong("accountid"));
+        long auditorId = rs.getLong("auditor_id");
+        if (!rs.wasNull()) {
+            Auditor auditor = new Auditor();
+            auditor.setId(auditorId);
+            h.setAuditor(auditor);
+        }
+        return h;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Historique historique) throws SQLException {
+        stmt.setString(1, historique.getDescription());
+        stmt.setTimestamp(2, Timestamp.valueOf(historique.getDate()));
+        stmt.setLong(3, historique.getAccountId());
+        if (historique.getAuditor() != null) {
+            stmt.setLong(4, historique.getAuditor().getId());
+        } else {
+            stmt.setNull(4, Types.BIGINT);
+        }
+        stmt.setLong(5, historique.getSeq());
+        stmt.setBytes(6, historique.getPrevHash());
+        stmt.setBytes(7, historique.getHash());
+    }
+}
@@ -0,0 +1,165 @@
+package app.repositories;
+
+import app.utils.DatabaseConnection;
+import app.utils.UnitOfWork;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gestion des partitions mensuelles de transaction et historique (doc/sql/006).
+ *
+ * - ensureFuturePartitions : crée à l'avance les partitions des mois à venir
+ *   (un INSERT dont la date n'a pas de partition échouerait)
+ * - detachMonth : détache un mois froid. transaction : DETACH ... CONCURRENTLY, sans bloquer les
+ *   lectures/écritures. historique : DETACH simple (verrou ACCESS EXCLUSIVE bref sur historique),
+ *   car PostgreSQL refuse CONCURRENTLY quand le parent a une partition DEFAULT (historique_sans_date)
+ * - archiveMonth : détache puis déplace la partition dans le schéma archive (export / suppression par l'exploitation)
+ *
+ * Seuls les mois postérieurs à la migration ont leur partition : les mois de *_legacy
+ * ne sont pas archivables un par un (voir doc/sql/006).
+ *
+ * Les noms de table viennent de l'enum Table, jamais d'une saisie : le DDL est construit par concaténation.
+ */
+public class PartitionManager {
+
+    public enum Table {
+        TRANSACTION("transaction", true),
+        // Partition DEFAULT historique_sans_date : DETACH CONCURRENTLY refusé
+        HISTORIQUE("historique", false);
+
+        private final String name;
+        private final boolean detachConcurrently;
+
+        Table(String name, boolean detachConcurrently) {
+            this.name = name;
+            this.detachConcurrently = detachConcurrently;
+        }
+
+        public String partitionName(YearMonth mois) {
+            return String.format("%s_y%04dm%02d", name, mois.getYear(), mois.getMonthValue());
+        }
+    }
+
+    private static final String ARCHIVE_SCHEMA = "archive";
+    // invalid_object_definition : le mois chevauche une partition existante (ex : *_legacy)
+    private static final String SQLSTATE_OVERLAP = "42P17";
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Créer les partitions du mois courant et des moisAvance mois suivants, pour chaque table.
+     * Idempotent : les partitions existantes (ou couvertes par *_legacy) sont ignorées.
+     * @return Nombre de partitions créées
+     */
+    public int ensureFuturePartitions(int moisAvance) {
+        // Un chevauchement en erreur annulerait toute la transaction englobante
+        checkNoUnitOfWork();
+        YearMonth courant = YearMonth.now();
+        int created = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (Table table : Table.values()) {
+                for (int i = 0; i <= moisAvance; i++) {
+                    if (createPartition(stmt, table, courant.plusMonths(i))) {
+                        created++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur création des partitions mensuelles : " + e.getMessage(), e);
+        }
+        return created;
+    }
+
+    /**
+     * Détacher la partition d'un mois : elle devient une table indépendante, hors des requêtes.
+     * DETACH CONCURRENTLY ne peut pas s'exécuter dans une transaction ; le DETACH simple
+     * (historique) attend la fin des requêtes en cours sur la table puis les bloque brièvement.
+     */
+    public void detachMonth(Table table, YearMonth mois) {
+        checkNoUnitOfWork();
+        String partition = table.partitionName(mois);
+        execute("ALTER TABLE " + table.name + " DETACH PARTITION " + partition + (table.detachConcurrently ? " CONCURRENTLY" : ""),
+                "Erreur détachement de la partition " + partition);
+    }
+
+    /**
+     * Détacher puis archiver la partition d'un mois dans le schéma archive.
+     */
+    public void archiveMonth(Table table, YearMonth mois) {
+        detachMonth(table, mois);
+        String partition = table.partitionName(mois);
+        execute("ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA,
+                "Erreur archivage de la partition " + partition);
+    }
+
+    /**
+     * Créer les partitions à venir maintenant puis chaque jour (thread démon).
+     */
+    public synchronized void start(int moisAvance) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Gestion des partitions déjà démarrée");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "partition-manager");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                ensureFuturePartitions(moisAvance);
+            } catch (RuntimeException e) {
+                // Une exception non rattrapée annulerait les passages suivants
+                System.err.println("Partitions : " + e.getMessage());
+            }
+        }, 0, 1, TimeUnit.DAYS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private boolean createPartition(Statement stmt, Table table, YearMonth mois) throws SQLException {
+        LocalDate debut = mois.atDay(1);
+        LocalDate fin = mois.plusMonths(1).atDay(1);
+        String sql = "CREATE TABLE IF NOT EXISTS " + table.partitionName(mois) + " PARTITION OF " + table.name +
+                " FOR VALUES FROM ('" + debut + "') TO ('" + fin + "')";
+        try {
+            stmt.execute(sql);
+            // IF NOT EXISTS : un avertissement (et pas d'erreur) si la partition existait déjà
+            boolean existed = stmt.getWarnings() != null;
+            stmt.clearWarnings();
+            return !existed;
+        } catch (SQLException e) {
+            if (SQLSTATE_OVERLAP.equals(e.getSQLState())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private void execute(String sql, String errorMessage) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage + " : " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkNoUnitOfWork() {
+        if (UnitOfWork.isActive()) {
+            throw new IllegalStateException("DDL de partitionnement impossible dans une transaction");
+        }
+    }
+}
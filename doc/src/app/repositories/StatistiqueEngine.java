@@ -0,0 +1,289 @@
+package app.repositories;
+
+import app.models.Statistique;
+import app.models.Transaction;
+import app.models.Enums.AccountType;
+import app.models.Enums.TransactionType;
+import app.utils.DatabaseConnection;
+import app.utils.LruCache;
+import app.utils.RunningStats;
+import app.utils.UnitOfWork;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistiques des montants de transaction en continu, par TransactionType et par AccountType.
+ *
+ * Types de statistique : "TRANSACTION_DEPOSIT", ..., "ACCOUNT_COURANT", "ACCOUNT_EPARGNE".
+ * - record() : appelé après COMMIT par TransactionRepository, O(1) (RunningStats)
+ * - current() : valeur courante en mémoire, sans requête
+ * - snapshot() : instantané journalier en base, une seule fois par type et par jour
+ *
+ * Au démarrage, un agrégat SQL (en tâche de fond) compte toutes les transactions visibles dans un
+ * instantané de la base figé avant la première utilisation du moteur ; record() compte toutes
+ * celles validées ensuite par l'application. La frontière est l'ordre de validation, pas la
+ * date métier. Les instantanés journaliers sont un historique : ils ne servent pas au démarrage.
+ * Une ligne insérée hors de l'application après le démarrage n'est comptée qu'au redémarrage suivant.
+ */
+public class StatistiqueEngine {
+
+    public static final String PREFIX_TRANSACTION = "TRANSACTION_";
+    public static final String PREFIX_ACCOUNT = "ACCOUNT_";
+
+    private static final int ACCOUNT_TYPE_CACHE_SIZE = 10_000;
+    private static final long ACCOUNT_TYPE_TTL_MS = 10 * 60_000;
+    private static final long WARM_UP_TIMEOUT_SEC = 60;
+
+    private static volatile StatistiqueEngine instance = null;
+
+    // Ensemble de clés fixe (enums) : map non modifiée après construction
+    private final Map<String, RunningStats> aggregates;
+    private final LruCache<Long, AccountType> accountTypes;
+    private final CountDownLatch pinned = new CountDownLatch(1);
+    private final CountDownLatch warm = new CountDownLatch(1);
+    private volatile RuntimeException warmUpError;
+
+    /**
+     * Moteur partagé de l'application ; le chargement initial démarre en tâche de fond.
+     */
+    public static StatistiqueEngine getInstance() {
+        StatistiqueEngine e = instance;
+        if (e == null) {
+            synchronized (StatistiqueEngine.class) {
+                e = instance;
+                if (e == null) {
+                    e = new StatistiqueEngine();
+                    Thread warmUp = new Thread(e::warmUp, "statistique-warmup");
+                    warmUp.setDaemon(true);
+                    warmUp.start();
+                    // Aucun record() avant l'instantané du chargement : pas de double comptage
+                    e.awaitPinned();
+                    instance = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    private StatistiqueEngine() {
+        Map<String, RunningStats> map = new LinkedHashMap<>();
+        for (TransactionType type : TransactionType.values()) {
+            map.put(key(type), new RunningStats());
+        }
+        for (AccountType type : AccountType.values()) {
+            map.put(key(type), new RunningStats());
+        }
+        this.aggregates = Collections.unmodifiableMap(map);
+        this.accountTypes = new LruCache<>(ACCOUNT_TYPE_CACHE_SIZE, ACCOUNT_TYPE_TTL_MS);
+    }
+
+    public static String key(TransactionType type) {
+        return PREFIX_TRANSACTION + type.name();
+    }
+
+    public static String key(AccountType type) {
+        return PREFIX_ACCOUNT + type.name();
+    }
+
+    /**
+     * @return true si le type est calculé en continu par le moteur
+     */
+    public static boolean isLiveType(String type) {
+        return type != null && (type.startsWith(PREFIX_TRANSACTION) || type.startsWith(PREFIX_ACCOUNT));
+    }
+
+    /**
+     * Compter une transaction validée (à appeler après COMMIT ; ne lève pas d'exception).
+     * Toute ligne validée après l'instantané du chargement est comptée, quelle que soit sa date.
+     */
+    public void record(Transaction transaction) {
+        BigDecimal montant = transaction.getMontant();
+        if (montant == null) {
+            return;
+        }
+        if (transaction.getType() != null) {
+            aggregates.get(key(transaction.getType())).add(montant);
+        }
+        AccountType accountType = accountType(transaction.getAccountId());
+        if (accountType != null) {
+            aggregates.get(key(accountType)).add(montant);
+        }
+    }
+
+    /**
+     * Valeur courante d'une statistique, sans accès à la base.
+     * @return null si le type n'est pas suivi par le moteur
+     * @throws RuntimeException si le chargement initial a échoué ou n'est pas terminé à temps
+     */
+    public Statistique current(String type) {
+        RunningStats stats = aggregates.get(type);
+        if (stats == null) {
+            return null;
+        }
+        awaitWarmUp();
+        return toStatistique(type, stats.copy(), LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    /**
+     * Enregistrer l'instantané du jour de chaque type, dans une seule transaction.
+     * Les valeurs en mémoire sont celles de maintenant : l'instantané est toujours daté
+     * d'aujourd'hui, et c'est ce jour qui est vérifié avant l'écriture.
+     * Un type déjà enregistré aujourd'hui n'est pas recalculé (existsByTypeAndDate).
+     * @param auditorId Auditeur demandeur, 0 pour un calcul automatique
+     * @return Nombre d'instantanés enregistrés
+     */
+    public int snapshot(long auditorId) {
+        awaitWarmUp();
+        StatistiqueRepository repository = new StatistiqueRepository();
+        // Même dateCalcul pour tous les types : un instantané par jour, cohérent entre types
+        LocalDateTime dateCalcul = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDate jour = dateCalcul.toLocalDate();
+        return UnitOfWork.execute(() -> {
+            int saved = 0;
+            for (Map.Entry<String, RunningStats> e : aggregates.entrySet()) {
+                if (repository.existsByTypeAndDate(e.getKey(), jour)) {
+                    continue;
+                }
+                Statistique s = toStatistique(e.getKey(), e.getValue().copy(), dateCalcul);
+                s.setAuditorId(auditorId);
+                repository.save(s);
+                saved++;
+            }
+            return saved;
+        });
+    }
+
+    public boolean isWarm() {
+        return warm.getCount() == 0 && warmUpError == null;
+    }
+
+    private void awaitPinned() {
+        try {
+            if (!pinned.await(WARM_UP_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                throw new RuntimeException("Base indisponible pour le chargement des statistiques");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Attente des statistiques interrompue", e);
+        }
+    }
+
+    private void awaitWarmUp() {
+        try {
+            if (!warm.await(WARM_UP_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                throw new RuntimeException("Statistiques en cours de chargement");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Attente des statistiques interrompue", e);
+        }
+        if (warmUpError != null) {
+            throw warmUpError;
+        }
+    }
+
+    /**
+     * Agrégat SQL de toutes les transactions visibles dans un instantané REPEATABLE READ.
+     * L'instantané est figé (pinned) avant que getInstance() ne rende le moteur : une transaction
+     * validée avant y est visible, une transaction validée après passe par record().
+     * Le découpage suit l'ordre de validation, pas la date métier : une ligne antidatée
+     * (ex : import par saveAll) est comptée une fois et une seule.
+     * La fusion est commutative : les record() reçus pendant le chargement restent valables.
+     */
+    private void warmUp() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new RuntimeException("Base indisponible pour le chargement des statistiques");
+            }
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                // L'instantané REPEATABLE READ est pris à la première requête de la transaction
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT 1");
+                }
+                pinned.countDown();
+                mergeAggregate(conn, "SELECT t.transaction_type::text AS cle, " + AGGREGATES +
+                        "FROM transaction t GROUP BY t.transaction_type", PREFIX_TRANSACTION);
+                mergeAggregate(conn, "SELECT a.type::text AS cle, " + AGGREGATES +
+                        "FROM transaction t JOIN account a ON a.id = t.\"accountId\" GROUP BY a.type", PREFIX_ACCOUNT);
+                conn.commit();
+            } finally {
+                // Le pool ne rétablit que l'autocommit : l'isolation est remise à sa valeur par défaut ici
+                conn.rollback();
+                conn.setAutoCommit(true);
+                conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            }
+        } catch (SQLException e) {
+            warmUpError = new RuntimeException("Erreur chargement initial des statistiques : " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            warmUpError = e;
+        } finally {
+            pinned.countDown();
+            warm.countDown();
+        }
+    }
+
+    private static final String AGGREGATES = "COUNT(*) AS nb, SUM(t.montant) AS somme, MIN(t.montant) AS minimum, " +
+            "MAX(t.montant) AS maximum, AVG(t.montant)::float8 AS moyenne, COALESCE(VAR_POP(t.montant), 0)::float8 AS variance ";
+
+    private void mergeAggregate(Connection conn, String sql, String prefix) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                RunningStats stats = aggregates.get(prefix + rs.getString("cle"));
+                if (stats != null) {
+                    stats.merge(rs.getLong("nb"), rs.getBigDecimal("somme"), rs.getBigDecimal("minimum"),
+                            rs.getBigDecimal("maximum"), rs.getDouble("moyenne"), rs.getDouble("variance"));
+                }
+            }
+        }
+    }
+
+    private AccountType accountType(long accountId) {
+        AccountType cached = accountTypes.get(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        String sql = "SELECT type FROM account WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, accountId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getString("type") != null) {
+                    AccountType type = AccountType.valueOf(rs.getString("type"));
+                    accountTypes.put(accountId, type);
+                    return type;
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Appelé après COMMIT : la transaction est validée, seule la statistique par type de compte manque
+            System.err.println("Statistiques : type du compte " + accountId + " introuvable : " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static Statistique toStatistique(String type, RunningStats stats, LocalDateTime dateCalcul) {
+        Statistique s = new Statistique(0L, type, dateCalcul, 0L);
+        s.setNombre(stats.getCount());
+        s.setSomme(stats.getSum());
+        s.setMinimum(stats.getMin());
+        s.setMaximum(stats.getMax());
+        s.setMoyenne(stats.getMean());
+        s.setVariance(stats.getVariance());
+        return s;
+    }
+}
@@ -0,0 +1,224 @@
+package app.repositories;
+
+import app.models.Statistique;
+import app.repositories.interfaces.StatistiqueInterface;
+import app.utils.DatabaseConnection;
+
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Implémentation pour les statistiques (table statistique, doc/sql/008)
+ * Les statistiques TRANSACTION_* / ACCOUNT_* courantes viennent de StatistiqueEngine (mémoire),
+ * la base ne garde que leurs instantanés journaliers
+ */
+public class StatistiqueRepository implements StatistiqueInterface {
+
+    private static final String SELECT_COLUMNS = "SELECT id, type, datecalcul, auditor_id, nb, somme, minimum, maximum, moyenne, variance FROM statistique ";
+
+    @Override
+    public void save(Statistique statistique) {
+        String sql = "INSERT INTO statistique (type, datecalcul, auditor_id, nb, somme, minimum, maximum, moyenne, variance) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            stmt.setString(1, statistique.getType());
+            stmt.setTimestamp(2, Timestamp.valueOf(statistique.getDateCalcul()));
+            if (statistique.getAuditorId() != 0L) {
+                stmt.setLong(3, statistique.getAuditorId());
+            } else {
+                stmt.setNull(3, Types.BIGINT); // instantané calculé par le système
+            }
+            stmt.setLong(4, statistique.getNombre());
+            stmt.setBigDecimal(5, statistique.getSomme());
+            stmt.setBigDecimal(6, statistique.getMinimum());
+            stmt.setBigDecimal(7, statistique.getMaximum());
+            stmt.setDouble(8, statistique.getMoyenne());
+            stmt.setDouble(9, statistique.getVariance());
+
+            if (stmt.executeUpdate() == 0) {
+                throw new RuntimeException("Échec sauvegarde statistique");
+            }
+            try (ResultSet gk = stmt.getGeneratedKeys()) {
+                if (gk.next()) {
+                    statistique.setId(gk.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur sauvegarde statistique : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Statistique findById(long id) {
+        List<Statistique> list = query(SELECT_COLUMNS + "WHERE id = ?",
+                stmt -> stmt.setLong(1, id),
+                "Erreur recherche statistique id=" + id);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    @Override
+    public List<Statistique> findByAuditorId(long auditorId) {
+        return query(SELECT_COLUMNS + "WHERE auditor_id = ? ORDER BY datecalcul DESC",
+                stmt -> stmt.setLong(1, auditorId),
+                "Erreur récupération statistiques pour auditorId=" + auditorId);
+    }
+
+    @Override
+    public List<Statistique> findByType(String type) {
+        return query(SELECT_COLUMNS + "WHERE type = ? ORDER BY datecalcul DESC",
+                stmt -> stmt.setString(1, type),
+                "Erreur récupération statistiques de type " + type);
+    }
+
+    @Override
+    public List<Statistique> findByDateCalculRange(LocalDate dateDebut, LocalDate dateFin) {
+        return query(SELECT_COLUMNS + "WHERE datecalcul >= ? AND datecalcul < ? ORDER BY datecalcul DESC",
+                stmt -> {
+                    stmt.setTimestamp(1, Timestamp.valueOf(dateDebut.atStartOfDay()));
+                    stmt.setTimestamp(2, Timestamp.valueOf(dateFin.plusDays(1).atStartOfDay()));
+                },
+                "Erreur récupération statistiques par période");
+    }
+
+    /**
+     * Types suivis par StatistiqueEngine : lecture O(1) en mémoire, aucun parcours de transaction
+     */
+    @Override
+    public Statistique findLatestByType(String type) {
+        if (StatistiqueEngine.isLiveType(type)) {
+            return StatistiqueEngine.getInstance().current(type);
+        }
+        List<Statistique> list = query(SELECT_COLUMNS + "WHERE type = ? ORDER BY datecalcul DESC LIMIT 1",
+                stmt -> stmt.setString(1, type),
+                "Erreur récupération dernière statistique de type " + type);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    @Override
+    public List<Statistique> findAll() {
+        return query(SELECT_COLUMNS + "ORDER BY datecalcul DESC",
+                stmt -> {},
+                "Erreur récupération des statistiques");
+    }
+
+    @Override
+    public void update(Statistique statistique) {
+        String sql = "UPDATE statistique SET type = ?, datecalcul = ?, nb = ?, somme = ?, minimum = ?, maximum = ?, moyenne = ?, variance = ? WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, statistique.getType());
+            stmt.setTimestamp(2, Timestamp.valueOf(statistique.getDateCalcul()));
+            stmt.setLong(3, statistique.getNombre());
+            stmt.setBigDecimal(4, statistique.getSomme());
+            stmt.setBigDecimal(5, statistique.getMinimum());
+            stmt.setBigDecimal(6, statistique.getMaximum());
+            stmt.setDouble(7, statistique.getMoyenne());
+            stmt.setDouble(8, statistique.getVariance());
+            stmt.setLong(9, statistique.getId());
+            if (stmt.executeUpdate() == 0) {
+                throw new RuntimeException("Statistique inexistante : " + statistique.getId());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur mise à jour statistique : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(long id) {
+        String sql = "DELETE FROM statistique WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, id);
+            if (stmt.executeUpdate() == 0) {
+                throw new RuntimeException("Statistique inexistante : " + id);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur suppression statistique : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void deleteOldStatisticsByType(String type, int keepMostRecent) {
+        String sql = "DELETE FROM statistique WHERE type = ? AND id NOT IN " +
+                "(SELECT id FROM statistique WHERE type = ? ORDER BY datecalcul DESC LIMIT ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, type);
+            stmt.setString(2, type);
+            stmt.setInt(3, Math.max(keepMostRecent, 0));
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur nettoyage statistiques de type " + type + " : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long countByType(String type) {
+        String sql = "SELECT COUNT(*) FROM statistique WHERE type = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, type);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur comptage statistiques de type " + type + " : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Servi par l'index unique (type, datecalcul::date) de doc/sql/008
+     */
+    @Override
+    public boolean existsByTypeAndDate(String type, LocalDate dateCalcul) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM statistique WHERE type = ? AND datecalcul::date = ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, type);
+            stmt.setDate(2, Date.valueOf(dateCalcul));
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur vérification statistique de type " + type + " : " + e.getMessage(), e);
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private List<Statistique> query(String sql, Binder binder, String errorMessage) {
+        List<Statistique> list = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            binder.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapStatistique(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage + " : " + e.getMessage(), e);
+        }
+        return list;
+    }
+
+    private Statistique mapStatistique(ResultSet rs) throws SQLException {
+        Statistique s = new Statistique(rs.getLong("id"), rs.getString("type"),
+                rs.getTimestamp("datecalcul").toLocalDateTime(), rs.getLong("auditor_id"));
+        s.setNombre(rs.getLong("nb"));
+        s.setSomme(rs.getBigDecimal("somme"));
+        s.setMinimum(rs.getBigDecimal("minimum"));
+        s.setMaximum(rs.getBigDecimal("maximum"));
+        s.setMoyenne(rs.getDouble("moyenne"));
+        s.setVariance(rs.getDouble("variance"));
+        return s;
+    }
+}
@@ -3,15 +3,42 @@ package app.repositories;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.math.BigDecimal;
 import app.models.Enums.TransactionType;
 
 import app.models.Transaction;
+import app.models.TransactionPage;
 import app.repositories.interfaces.TransactionInterface;
 import app.utils.DatabaseConnection;
+import app.utils.UnitOfWork;
+import app.utils.UuidV7;
 
 public class TransactionRepository implements TransactionInterface {
 
+    private static final String INSERT_SQL = "INSERT INTO transaction (id, \"accountId\", datetransaction, montant, transaction_type) VALUES (?, ?, ?, ?, ?::transaction_type)";
+    private static final String SELECT_BY_ACCOUNT_SQL = "SELECT id, \"accountId\", datetransaction, montant, transaction_type FROM transaction WHERE \"accountId\" = ? ORDER BY datetransaction DESC, id DESC";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 500;
+    // Lignes rapatriées par aller-retour sur le curseur serveur
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    // Taille des paquets envoyés par executeBatch() dans saveAll()
+    private final int batchSize;
+    // Agrégats en continu, mis à jour après COMMIT
+    private final StatistiqueEngine statistiques = StatistiqueEngine.getInstance();
+
+    public TransactionRepository() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public TransactionRepository(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Taille de lot invalide : " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
     /**
      * MÉTHODE CRITIQUE : Enregistre toutes les transactions TELLER
      * 
@@ -27,33 +54,17 @@ public class TransactionRepository implements TransactionInterface {
      */
     @Override
     public Transaction save(Transaction transaction) {
-     String sql = "INSERT INTO transaction (id, \"accountId\", datetransaction, montant, transaction_type) VALUES (?, ?, ?, ?, ?::transaction_type)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            // Générer UUID si absent
-            if (transaction.getId() == null) {
-                transaction.setId(UUID.randomUUID());
-            }
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
             
-            // Mapping exact colonnes DB
-            stmt.setObject(1, transaction.getId());                    // uuid
-            stmt.setLong(2, transaction.getAccountId());               // bigint  
-            stmt.setTimestamp(3, Timestamp.valueOf(transaction.getDateTransaction())); // timestamp
-            stmt.setBigDecimal(4, transaction.getMontant());           // numeric(18,2)
-            // transaction_type may be null for older records
-            if (transaction.getType() != null) {
-                stmt.setString(5, transaction.getType().name());
-            } else {
-                stmt.setNull(5, Types.OTHER);
-            }
+            bindInsert(stmt, transaction);
             
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected == 0) {
                 throw new RuntimeException("Échec sauvegarde transaction");
             }
+            UnitOfWork.afterCommit(() -> statistiques.record(transaction));
             
             return transaction;
             
@@ -62,26 +73,69 @@ public class TransactionRepository implements TransactionInterface {
         }
     }
 
+    /**
+     * Insertion par lots : addBatch()/executeBatch() par paquets de batchSize lignes.
+     * Avec reWriteBatchedInserts (URL JDBC), le driver PostgreSQL réécrit chaque paquet
+     * en un INSERT multi-valeurs. Le tout dans une UnitOfWork : un seul COMMIT.
+     */
+    @Override
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        if (transactions == null || transactions.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return UnitOfWork.execute(() -> {
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                int pending = 0;
+                for (Transaction transaction : transactions) {
+                    bindInsert(stmt, transaction);
+                    stmt.addBatch();
+                    if (++pending == batchSize) {
+                        stmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    stmt.executeBatch();
+                }
+                UnitOfWork.afterCommit(() -> transactions.forEach(statistiques::record));
+                return transactions;
+            } catch (SQLException e) {
+                throw new RuntimeException("Erreur enregistrement lot de transactions : " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Mapping exact colonnes DB pour l'INSERT (génère l'UUIDv7 si absent)
+     */
+    private void bindInsert(PreparedStatement stmt, Transaction transaction) throws SQLException {
+        // Générer UUID si absent : UUIDv7 ordonné dans le temps (insertions en fin d'index de clé primaire)
+        if (transaction.getId() == null) {
+            transaction.setId(UuidV7.generate());
+        }
+        
+        stmt.setObject(1, transaction.getId());                    // uuid
+        stmt.setLong(2, transaction.getAccountId());               // bigint  
+        stmt.setTimestamp(3, Timestamp.valueOf(transaction.getDateTransaction())); // timestamp
+        stmt.setBigDecimal(4, transaction.getMontant());           // numeric(18,2)
+        // transaction_type may be null for older records
+        if (transaction.getType() != null) {
+            stmt.setString(5, transaction.getType().name());
+        } else {
+            stmt.setNull(5, Types.OTHER);
+        }
+    }
+
     @Override
     public List<Transaction> findByAccountId(long accountId) {
-    String sql = "SELECT id, \"accountId\", datetransaction, montant, transaction_type FROM transaction WHERE \"accountId\" = ? ORDER BY datetransaction DESC";
         List<Transaction> transactions = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ACCOUNT_SQL)) {
             stmt.setLong(1, accountId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Transaction tx = new Transaction();
-                    tx.setId((java.util.UUID) rs.getObject("id"));
-                    tx.setAccountId(rs.getLong("accountId"));
-                    Timestamp ts = rs.getTimestamp("datetransaction");
-                    if (ts != null) tx.setDateTransaction(ts.toLocalDateTime());
-                    tx.setMontant(rs.getBigDecimal("montant").setScale(2, java.math.RoundingMode.HALF_UP));
-                    String typeStr = rs.getString("transaction_type");
-                    if (typeStr != null) {
-                        tx.setType(TransactionType.valueOf(typeStr));
-                    }
-                    transactions.add(tx);
+                    transactions.add(mapTransaction(rs));
                 }
             }
         } catch (SQLException e) {
@@ -89,4 +143,135 @@ public class TransactionRepository implements TransactionInterface {
         }
         return transactions;
     }
+
+    /**
+     * Bornes sur datetransaction : élagage des partitions mensuelles par PostgreSQL
+     */
+    @Override
+    public List<Transaction> findByAccountIdBetween(long accountId, LocalDateTime debut, LocalDateTime fin) {
+        String sql = "SELECT id, \"accountId\", datetransaction, montant, transaction_type FROM transaction " +
+                "WHERE \"accountId\" = ? AND datetransaction >= ? AND datetransaction < ? " +
+                "ORDER BY datetransaction DESC, id DESC";
+        List<Transaction> transactions = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, accountId);
+            stmt.setTimestamp(2, Timestamp.valueOf(debut));
+            stmt.setTimestamp(3, Timestamp.valueOf(fin));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransaction(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur récupération transactions sur période pour accountId=" + accountId + " : " + e.getMessage(), e);
+        }
+        return transactions;
+    }
+
+    /**
+     * Pagination par clé : (datetransaction, id) strictement inférieur au dernier élément
+     * de la page précédente, index idx_transaction_account_date_id (doc/sql/001).
+     * On lit limit + 1 lignes pour savoir s'il existe une page suivante.
+     */
+    @Override
+    public TransactionPage findByAccountId(long accountId, String afterCursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Taille de page invalide (1 à " + MAX_PAGE_SIZE + ") : " + limit);
+        }
+        Object[] after = afterCursor == null ? null : decodeCursor(afterCursor);
+        String sql = "SELECT id, \"accountId\", datetransaction, montant, transaction_type FROM transaction " +
+                "WHERE \"accountId\" = ?" +
+                (after == null ? "" : " AND (datetransaction, id) < (?, ?)") +
+                " ORDER BY datetransaction DESC, id DESC LIMIT ?";
+        List<Transaction> transactions = new ArrayList<>(limit + 1);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            stmt.setLong(i++, accountId);
+            if (after != null) {
+                stmt.setTimestamp(i++, Timestamp.valueOf((LocalDateTime) after[0]));
+                stmt.setObject(i++, after[1]);
+            }
+            stmt.setInt(i, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransaction(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur récupération page de transactions pour accountId=" + accountId + " : " + e.getMessage(), e);
+        }
+
+        String nextCursor = null;
+        if (transactions.size() > limit) {
+            transactions.remove(limit);
+            nextCursor = encodeCursor(transactions.get(limit - 1));
+        }
+        return new TransactionPage(transactions, nextCursor);
+    }
+
+    /**
+     * Jeton opaque = base64url("datetransaction|id") de la dernière transaction de la page
+     */
+    private static String encodeCursor(Transaction last) {
+        String raw = last.getDateTransaction() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), java.nio.charset.StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) {
+                throw new IllegalArgumentException("séparateur absent");
+            }
+            return new Object[] { LocalDateTime.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide : " + cursor, e);
+        }
+    }
+
+    /**
+     * Streaming par curseur serveur : le driver PostgreSQL n'utilise un curseur (setFetchSize)
+     * que hors autocommit, d'où la UnitOfWork autour de la lecture.
+     */
+    @Override
+    public long forEachByAccountId(long accountId, Consumer<Transaction> consumer) {
+        return UnitOfWork.execute(() -> {
+            long count = 0;
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ACCOUNT_SQL,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(STREAM_FETCH_SIZE);
+                stmt.setLong(1, accountId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapTransaction(rs));
+                        count++;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Erreur parcours transactions pour accountId=" + accountId + " : " + e.getMessage(), e);
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Mapping ResultSet → Transaction
+     */
+    private Transaction mapTransaction(ResultSet rs) throws SQLException {
+        Transaction tx = new Transaction();
+        tx.setId((java.util.UUID) rs.getObject("id"));
+        tx.setAccountId(rs.getLong("accountId"));
+        Timestamp ts = rs.getTimestamp("datetransaction");
+        if (ts != null) tx.setDateTransaction(ts.toLocalDateTime());
+        tx.setMontant(rs.getBigDecimal("montant").setScale(2, java.math.RoundingMode.HALF_UP));
+        String typeStr = rs.getString("transaction_type");
+        if (typeStr != null) {
+            tx.setType(TransactionType.valueOf(typeStr));
+        }
+        return tx;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package app.repositories;
 import app.models.Treller;
 import app.models.User;
 import app.utils.DatabaseConnection;
+import app.utils.SessionRegistry;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -90,21 +91,16 @@ public class TrellerRepository {
     }
 
     /**
-     * Retourne le Treller actuellement connecté (champ logged_in = true).
-     * Retourne null si aucun Treller n'est connecté.
+     * Retourne le Treller de la session liée au thread courant (SessionRegistry), sans requête.
+     * Retourne null si aucune session, si elle a expiré, ou si l'utilisateur n'est pas un Treller.
      */
     public Treller getConnectTreller() {
-        String sql = "SELECT * FROM treller WHERE logged_in = true LIMIT 1";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToTreller(rs);
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Erreur lors de la récupération du Treller connecté : " + e.getMessage(), e);
+        User user = SessionRegistry.getInstance().currentUser();
+        if (user == null || user.getRole() != User.Role.Treller) {
+            return null;
         }
-        return null;
+        Treller treller = new Treller(user.getId(), user.getFullName(), user.getRole(), user.getEmail(), null);
+        treller.setLoggedIn(true);
+        return treller;
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,9 @@ package app.repositories.interfaces;
 
 import app.models.Account;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface pour les opérations CRUD sur Account
@@ -26,6 +28,15 @@ public interface AccountInterface {
      */
     Account findById(Long id);
     
+    /**
+     * Charger plusieurs comptes en une seule requête projetée (id, solde, status, type, clientId).
+     * Utilisé par TELLER pour valider en un aller-retour existence + statut + solde,
+     * y compris les 2 comptes d'un virement (WHERE id IN (?, ?))
+     * @param ids Les IDs des comptes
+     * @return Map id → compte ; les comptes inexistants ou supprimés sont absents
+     */
+    Map<Long, Account> findByIds(Collection<Long> ids);
+    
     /**
      * Rechercher tous les comptes d'un client spécifique.
      * ESSENTIEL pour TELLER : création compte supplémentaire, virement interne
@@ -51,6 +62,16 @@ public interface AccountInterface {
      */
     void updateSolde(Long accountId, BigDecimal nouveauSolde);
     
+    /**
+     * Appliquer un mouvement au solde en une seule requête atomique (solde = solde + delta).
+     * Aucune lecture préalable : pas de mise à jour perdue entre opérations concurrentes.
+     * Un débit est refusé s'il rendrait le solde négatif (pas de découvert autorisé).
+     * @param accountId L'ID du compte
+     * @param delta Montant signé : positif pour un crédit, négatif pour un débit
+     * @return Le nouveau solde, ou null si compte inexistant/supprimé ou solde insuffisant
+     */
+    BigDecimal applyDelta(Long accountId, BigDecimal delta);
+    
     /**
      * Vérifier si un compte est actif (autorise les opérations).
      * Validation OBLIGATOIRE avant toute opération TELLER
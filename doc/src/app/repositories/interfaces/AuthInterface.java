@@ -8,12 +8,11 @@ public interface AuthInterface {
     // SESSION - Récupérer utilisateur connecté par ID 
     User findById(long id);
 
-    // LOGIN - Email + Password pour connexion
-    User findByEmailAndPassword(String email, String password);
+    // LOGIN - Utilisateur par email, null si inconnu (mot de passe vérifié par PasswordVerifier)
+    User findByEmail(String email);
 
-    // SESSION - Mise à jour du statut de connexion en base
-    void updateLoggedInStatus(long userId, boolean loggedIn);
+    // LOGIN - Remplacer la valeur stockée du mot de passe (hash PasswordHasher)
+    void updatePassword(long userId, String passwordHash);
 
-    // Vérifie si l'utilisateur est actuellement connecté
-    boolean isUserLoggedIn(long userId);
-}
\ No newline at end of file
+    // Les sessions (utilisateur connecté) sont tenues en mémoire par SessionRegistry
+}
@@ -22,6 +22,22 @@ public interface ClientInterface {
      * @return Client trouvé ou null si inexistant
      */
     Client findByEmail(String email);
+
+    /**
+     * Vérifie si un client actif utilise déjà cet email (sans tenir compte de la casse).
+     * Ne construit pas de Client : à préférer à findByEmail pour un simple contrôle d'unicité.
+     * @param email L'email à vérifier
+     * @return true si l'email est déjà utilisé
+     */
+    boolean existsByEmail(String email);
+    
+    /**
+     * Recherche le client propriétaire d'un compte (jointure sur account."clientId").
+     * Une seule requête indexée, quel que soit le nombre de clients.
+     * @param accountId L'ID du compte
+     * @return Client propriétaire ou null si compte/client inexistant
+     */
+    Client findByAccountId(long accountId);
     
     
     /**
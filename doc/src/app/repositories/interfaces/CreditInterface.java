@@ -1,7 +1,10 @@
 package app.repositories.interfaces;
 
 import app.models.Credit;
+import app.models.Enums.CreditStatus;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Interface pour les opérations CRUD sur Credit
@@ -24,4 +27,31 @@ public interface CreditInterface {
      * @return Liste des crédits du compte
      */
     List<Credit> findByAccountId(long accountId);
+
+    /**
+     * Changer le statut de plusieurs crédits en requêtes groupées (ex : ACTIVE → LATE).
+     * Seuls les crédits actuellement dans le statut attendu sont modifiés.
+     * @param creditIds Les IDs des crédits
+     * @param statutAttendu Statut actuel requis
+     * @param nouveauStatut Nouveau statut
+     * @return Nombre de crédits modifiés
+     */
+    int updateStatus(Collection<Long> creditIds, CreditStatus statutAttendu, CreditStatus nouveauStatut);
+
+    /**
+     * Compter les crédits d'un compte dans un statut donné (sans charger les crédits)
+     * @param accountId L'ID du compte
+     * @param status Le statut recherché
+     * @return Nombre de crédits du compte dans ce statut
+     */
+    int countByAccountIdAndStatus(long accountId, CreditStatus status);
+
+    /**
+     * Compter les crédits d'un compte dans plusieurs statuts (une seule requête)
+     * Utilisé pour la règle TELLER : au plus 2 crédits en cours (ACTIVE ou LATE) par compte
+     * @param accountId L'ID du compte
+     * @param statuses Les statuts comptés
+     * @return Nombre de crédits du compte dans l'un de ces statuts
+     */
+    int countByAccountIdAndStatuses(long accountId, Set<CreditStatus> statuses);
 }
\ No newline at end of file
@@ -1,51 +1,61 @@
 package app.repositories.interfaces;
 
 import app.models.Echeance;
+import app.models.EcheancierProgress;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 /**
  * Interface pour la gestion des échéances de crédit.
  * Définit les opérations pour le suivi et paiement des échéances.
  */
 public interface EcheanceInterface {
-    
+
     /**
      * Sauvegarde une nouvelle échéance dans la base de données.
      * @param echeance L'objet Echeance à sauvegarder
      * @throws RuntimeException si erreur de sauvegarde
      */
     void save(Echeance echeance);
-    
+
+    /**
+     * Sauvegarde un lot d'échéances en JDBC batch (génération d'échéanciers).
+     * @param echeances Les échéances à sauvegarder
+     * @throws RuntimeException si erreur de sauvegarde
+     */
+    void saveAll(List<Echeance> echeances);
+
     /**
      * Recherche une échéance par son identifiant unique.
-     * @param id L'UUID de l'échéance recherchée
+     * @param id L'ID de l'échéance recherchée
      * @return Echeance trouvée ou null si inexistante
      */
-    Echeance findById(UUID id);
-    
+    Echeance findById(long id);
+
     /**
      * Récupère toutes les échéances d'un crédit spécifique.
-     * @param creditId L'UUID du crédit
+     * @param creditId L'ID du crédit
      * @return Liste des échéances du crédit, triées par numéro
      */
-    List<Echeance> findByCreditId(UUID creditId);
-    
+    List<Echeance> findByCreditId(long creditId);
+
     /**
      * Récupère les échéances non payées d'un crédit.
-     * @param creditId L'UUID du crédit
+     * @param creditId L'ID du crédit
      * @return Liste des échéances impayées
      */
-    List<Echeance> findUnpaidByCreditId(UUID creditId);
-    
+    List<Echeance> findUnpaidByCreditId(long creditId);
+
     /**
      * Récupère les échéances échues (date dépassée et non payées).
      * @param dateReference La date de référence (généralement aujourd'hui)
      * @return Liste des échéances en retard
      */
     List<Echeance> findOverdueBefore(LocalDate dateReference);
-    
+
     /**
      * Récupère les échéances à venir dans une période donnée.
      * @param dateDebut Date de début de la période
@@ -53,26 +63,75 @@ public interface EcheanceInterface {
      * @return Liste des échéances dans la période
      */
     List<Echeance> findUpcomingBetween(LocalDate dateDebut, LocalDate dateFin);
-    
+
     /**
      * Met à jour une échéance (notamment pour marquer comme payée).
      * @param echeance L'objet Echeance avec les nouvelles données
      * @throws RuntimeException si échéance inexistante
      */
     void update(Echeance echeance);
-    
+
     /**
      * Marque une échéance comme payée avec date de paiement.
-     * @param echeanceId L'UUID de l'échéance
+     * @param echeanceId L'ID de l'échéance
      * @param datePaiement La date effective du paiement
      * @throws RuntimeException si échéance inexistante ou déjà payée
      */
-    void markAsPaid(UUID echeanceId, LocalDate datePaiement);
-    
+    void markAsPaid(long echeanceId, LocalDate datePaiement);
+
+    /**
+     * Calcule le montant total des échéances impayées pour un crédit (SUM en base, exact).
+     * @param creditId L'ID du crédit
+     * @return Montant total des échéances non payées (capital + intérêts + pénalités)
+     */
+    BigDecimal getTotalUnpaidAmount(long creditId);
+
+    /**
+     * Montant impayé de plusieurs crédits en une requête groupée (tableaux de bord Manager).
+     * @param creditIds Les IDs des crédits
+     * @return Map creditId → montant impayé, 0 pour les crédits sans échéance impayée
+     */
+    Map<Long, BigDecimal> getTotalUnpaidAmounts(Collection<Long> creditIds);
+
+    /**
+     * Supprime les échéances non payées de plusieurs crédits (régénération d'échéanciers).
+     * Les échéances déjà payées sont conservées.
+     * @param creditIds Les IDs des crédits
+     * @return Nombre d'échéances supprimées
+     */
+    int deleteUnpaidByCreditIds(Collection<Long> creditIds);
+
+    /**
+     * Avancement du remboursement de plusieurs crédits en une requête groupée
+     * (nombre d'échéances payées, capital remboursé, date de la première échéance).
+     * @param creditIds Les IDs des crédits
+     * @return Map creditId → avancement ; absent si le crédit n'a aucune échéance
+     */
+    Map<Long, EcheancierProgress> findProgressByCreditIds(Collection<Long> creditIds);
+
+    /**
+     * Bornes des IDs de crédit ayant des échéances en retard (partitionnement des traitements de masse).
+     * @param dateReference Date de référence
+     * @return {creditIdMin, creditIdMax}, ou null si aucune échéance en retard
+     */
+    long[] findOverdueCreditIdBounds(LocalDate dateReference);
+
+    /**
+     * Échéances en retard d'une tranche d'IDs de crédit dont la pénalité n'est pas encore
+     * calculée pour la date métier donnée.
+     * @param dateMetier Date métier du calcul
+     * @param creditIdMin Borne basse incluse
+     * @param creditIdMax Borne haute incluse
+     * @return Liste des échéances à pénaliser
+     */
+    List<Echeance> findPenaltyCandidates(LocalDate dateMetier, long creditIdMin, long creditIdMax);
+
     /**
-     * Calcule le montant total des échéances impayées pour un crédit.
-     * @param creditId L'UUID du crédit
-     * @return Montant total des échéances non payées
+     * Enregistre les pénalités calculées en JDBC batch et les date de la date métier.
+     * Les échéances payées entre-temps ne sont pas modifiées.
+     * @param echeances Les échéances avec leur nouvelle pénalité
+     * @param dateMetier Date métier du calcul
+     * @return Nombre d'échéances mises à jour
      */
-    double getTotalUnpaidAmount(UUID creditId);
+    int updatePenalites(List<Echeance> echeances, LocalDate dateMetier);
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package app.repositories.interfaces;
 
 import app.models.Historique;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Interface pour l'historisation des opérations bancaires
@@ -18,4 +20,21 @@ public interface HistoriqueInterface {
      * @return Historique sauvegardé avec ID généré
      */
     Historique save(Historique historique);
+
+    /**
+     * Enregistrer un lot d'entrées en JDBC batch (écriture différée par AsyncHistoriqueWriter)
+     * Les IDs générés ne sont pas relus
+     * @param historiques Les entrées à sauvegarder
+     */
+    void saveAll(List<Historique> historiques);
+
+    /**
+     * Récupérer l'historique d'un compte sur une période [debut, fin[
+     * Table partitionnée par mois (doc/sql/006) : seules les partitions de la période sont lues
+     * @param accountId L'ID du compte
+     * @param debut Début de période (inclus)
+     * @param fin Fin de période (exclue)
+     * @return Entrées de la période triées par date descendante
+     */
+    List<Historique> findByAccountIdBetween(long accountId, LocalDateTime debut, LocalDateTime fin);
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package app.repositories.interfaces;
 import app.models.Statistique;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Interface pour la gestion des statistiques du système bancaire.
@@ -20,17 +19,17 @@ public interface StatistiqueInterface {
     
     /**
      * Recherche une statistique par son identifiant unique.
-     * @param id L'UUID de la statistique recherchée
+     * @param id L'ID de la statistique recherchée
      * @return Statistique trouvée ou null si inexistante
      */
-    Statistique findById(UUID id);
+    Statistique findById(long id);
     
     /**
      * Récupère toutes les statistiques créées par un auditeur spécifique.
-     * @param auditorId L'UUID de l'auditeur
+     * @param auditorId L'ID de l'auditeur
      * @return Liste des statistiques de l'auditeur, triées par date de calcul
      */
-    List<Statistique> findByAuditorId(UUID auditorId);
+    List<Statistique> findByAuditorId(long auditorId);
     
     /**
      * Récupère les statistiques par type (ex: "TRANSACTIONS_MONTHLY", "ACCOUNTS_SUMMARY").
@@ -49,6 +48,7 @@ public interface StatistiqueInterface {
     
     /**
      * Récupère la statistique la plus récente d'un type donné.
+     * Types TRANSACTION_* et ACCOUNT_* : valeur courante de StatistiqueEngine, sans requête.
      * @param type Le type de statistique recherché
      * @return Statistique la plus récente ou null si aucune
      */
@@ -69,10 +69,10 @@ public interface StatistiqueInterface {
     
     /**
      * Supprime une statistique obsolète.
-     * @param id L'UUID de la statistique à supprimer
+     * @param id L'ID de la statistique à supprimer
      * @throws RuntimeException si statistique inexistante
      */
-    void delete(UUID id);
+    void delete(long id);
     
     /**
      * Supprime toutes les statistiques anciennes d'un type donné.
@@ -1,7 +1,10 @@
 package app.repositories.interfaces;
 
 import app.models.Transaction;
+import app.models.TransactionPage;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface pour les opérations CRUD sur Transaction
@@ -17,6 +20,14 @@ public interface TransactionInterface {
      */
     Transaction save(Transaction transaction);
     
+    /**
+     * Enregistrer un lot de transactions (imports de fin de journée, intérêts, virements en masse)
+     * en JDBC batch : un aller-retour par paquet au lieu d'un par ligne, un seul COMMIT.
+     * @param transactions Les transactions à sauvegarder (IDs générés si absents)
+     * @return Les transactions sauvegardées
+     */
+    List<Transaction> saveAll(List<Transaction> transactions);
+    
     /**
      * Récupérer l'historique des transactions d'un compte
      * Optionnel mais utile pour consultation historique simple
@@ -24,4 +35,35 @@ public interface TransactionInterface {
      * @return Liste des transactions du compte
      */
     List<Transaction> findByAccountId(long accountId);
+    
+    /**
+     * Récupérer les transactions d'un compte sur une période [debut, fin[.
+     * Table partitionnée par mois (doc/sql/006) : seules les partitions de la période sont lues.
+     * @param accountId L'ID du compte
+     * @param debut Début de période (inclus)
+     * @param fin Fin de période (exclue)
+     * @return Transactions de la période, des plus récentes aux plus anciennes
+     */
+    List<Transaction> findByAccountIdBetween(long accountId, LocalDateTime debut, LocalDateTime fin);
+    
+    /**
+     * Récupérer une page de l'historique d'un compte (pagination par clé sur datetransaction, id).
+     * Une page profonde coûte autant que la première (pas d'OFFSET).
+     * @param accountId L'ID du compte
+     * @param afterCursor Jeton opaque de la page précédente (TransactionPage.getNextCursor()), null pour la première page
+     * @param limit Nombre maximum de transactions dans la page
+     * @return La page, des plus récentes aux plus anciennes
+     * @throws IllegalArgumentException si le curseur est invalide ou la limite hors bornes
+     */
+    TransactionPage findByAccountId(long accountId, String afterCursor, int limit);
+    
+    /**
+     * Parcourir l'historique d'un compte en streaming (curseur serveur, lecture par paquets).
+     * La mémoire reste constante quelle que soit la longueur de l'historique :
+     * chaque transaction est passée au consumer puis peut être libérée.
+     * @param accountId L'ID du compte
+     * @param consumer Traitement appliqué à chaque transaction, de la plus récente à la plus ancienne
+     * @return Nombre de transactions parcourues
+     */
+    long forEachByAccountId(long accountId, Consumer<Transaction> consumer);
 }
\ No newline at end of file
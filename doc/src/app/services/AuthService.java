@@ -2,18 +2,41 @@ package app.services;
 
 import app.models.*;
 import app.repositories.AuthRepository;
+import app.utils.LoginRateLimiter;
+import app.utils.PasswordVerifier;
+import app.utils.SessionRegistry;
 import app.utils.ValidationUtils;
 
 public class AuthService{
 
     private AuthRepository authRepository;
+    private final SessionRegistry sessions;
+    private final PasswordVerifier passwordVerifier;
+    private final LoginRateLimiter rateLimiter;
 
     // ✅ AuthService ne connaît QUE AuthRepository et gère ses dépendances
     public AuthService() {
         this.authRepository = new AuthRepository();
+        this.sessions = SessionRegistry.getInstance();
+        this.passwordVerifier = PasswordVerifier.getInstance();
+        this.rateLimiter = LoginRateLimiter.getInstance();
     }
 
+    // Application console : une seule source, le poste local
     public User login(String email, String password) {
+        return login(email, password, "local");
+    }
+
+    /**
+     * Connexion : ouvre une session et la lie au thread courant.
+     * Le mot de passe est vérifié sur le pool borné de PasswordVerifier (PBKDF2) ;
+     * un mot de passe encore en clair en base est remplacé par son hash.
+     * @param source Origine de la tentative (poste, adresse) pour la limitation par source
+     * @return Utilisateur de la session (sans mot de passe)
+     * @throws IllegalStateException si trop de tentatives pour cet email / cette source,
+     *         ou si trop de connexions sont en cours (réessayer plus tard)
+     */
+    public User login(String email, String password, String source) {
         if (!ValidationUtils.isNotEmpty(email))
             throw new IllegalArgumentException(ValidationUtils.ErrorMessages.EMPTY_FIELD);
 
@@ -23,29 +46,40 @@ public class AuthService{
         if (!ValidationUtils.isValidPassword(password))
             throw new IllegalArgumentException(ValidationUtils.ErrorMessages.INVALID_PASSWORD);
 
-        User user = authRepository.findByEmailAndPassword(email, password);
+        // Avant tout accès base : une rafale de tentatives ne coûte ni requête ni hash
+        if (!rateLimiter.tryAcquire(email, source))
+            throw new IllegalStateException("Trop de tentatives de connexion, réessayez plus tard");
+
+        User user = authRepository.findByEmail(email);
+        PasswordVerifier.Result result = passwordVerifier.verify(email, password, user == null ? null : user.getPassword());
         
-        if (user == null)
+        if (user == null || !result.isValide())
             throw new IllegalArgumentException("Invalide User");        
-        authRepository.updateLoggedInStatus(user.getId(), true);
-        return user;
+        if (result.getNouveauHash() != null)
+            authRepository.updatePassword(user.getId(), result.getNouveauHash());
+        Session session = sessions.open(user);
+        sessions.bind(session.getToken());
+        return session.getUser();
     }
 
+    /**
+     * Idempotent : une session déjà expirée ou fermée n'est pas une erreur
+     */
     public void logout(long userId) {
 
         if (!ValidationUtils.isValidUserId(userId))
             throw new IllegalArgumentException(ValidationUtils.ErrorMessages.USER_ID_INVALID);
-        User user = authRepository.findById(userId);
-        if (user == null)
-            throw new IllegalArgumentException(ValidationUtils.ErrorMessages.USER_NOT_FOUND);
 
-        authRepository.updateLoggedInStatus(userId, false);
+        sessions.closeUser(userId);
     }
 
+    /**
+     * Lecture en mémoire (SessionRegistry), sans requête
+     */
     public boolean isUserLoggedIn(long userId) {
         if (!ValidationUtils.isValidUserId(userId)) {
             return false;
         }
-        return authRepository.isUserLoggedIn(userId);
+        return sessions.isActive(userId);
     }
 }
@@ -0,0 +1,204 @@
+package app.services;
+
+import app.models.Credit;
+import app.models.Echeance;
+import app.models.EcheancierProgress;
+import app.models.Enums.CreditType;
+import app.repositories.EcheanceRepository;
+import app.repositories.interfaces.EcheanceInterface;
+import app.utils.UnitOfWork;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Moteur d'échéancier des crédits (tableau d'amortissement).
+ *
+ * - CONSTANT  : mensualité constante, intérêts sur capital restant dû, la part de capital augmente
+ * - DEGRESSIF : amortissement constant du capital, mensualités décroissantes
+ *
+ * Arrondi au centime à chaque échéance ; la dernière échéance solde exactement le capital restant,
+ * la somme des parts de capital est donc toujours égale au capital emprunté.
+ * Calcul en une passe, O(durée) par crédit.
+ */
+public class EcheancierService {
+
+    private static final MathContext MC = MathContext.DECIMAL128;
+    private static final BigDecimal MOIS_PAR_AN_POURCENT = new BigDecimal("1200");
+    // Crédits traités par lot (une requête d'avancement + un DELETE + un batch INSERT, un COMMIT)
+    private static final int TAILLE_LOT = 500;
+    // Borné par la taille du pool de connexions
+    private static final int PARALLELISME = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+
+    private final EcheanceInterface echeanceRepository;
+
+    public EcheancierService() {
+        this.echeanceRepository = new EcheanceRepository();
+    }
+
+    /**
+     * Calculer l'échéancier complet d'un crédit (sans persistance).
+     * @param credit Le crédit (montant initial, taux annuel en %, durée en mois, type)
+     * @param premiereEcheance Date de la première mensualité
+     * @return Les échéances numérotées de 1 à dureMois
+     */
+    public List<Echeance> genererEcheancier(Credit credit, LocalDate premiereEcheance) {
+        return calculer(credit, credit.getMontantInitial(), credit.getDureMois(), 1, premiereEcheance);
+    }
+
+    /**
+     * Calculer et enregistrer l'échéancier d'un crédit (remplace les échéances non payées).
+     * Les échéances déjà payées sont conservées : la numérotation et le calcul reprennent
+     * après elles, sur le capital restant dû (comme regenererEcheanciers).
+     * @param premiereEcheance Date de la première mensualité si le crédit n'a encore aucune échéance payée
+     * @return Les échéances enregistrées (non payées)
+     * @throws IllegalStateException si les échéances payées ne sont pas les premières du tableau
+     */
+    public List<Echeance> enregistrerEcheancier(Credit credit, LocalDate premiereEcheance) {
+        List<Echeance> echeances = UnitOfWork.execute(() -> {
+            EcheancierProgress p = echeanceRepository.findProgressByCreditIds(List.of(credit.getId())).get(credit.getId());
+            if (p != null && !p.isPayeesContigues()) {
+                throw new IllegalStateException("Échéances payées non contiguës pour le crédit " + credit.getId()
+                        + " (" + p.getNbPayees() + " payées, dernière n° " + p.getDernierNumeroPaye() + ")");
+            }
+            List<Echeance> restantes = p == null || p.getNbPayees() == 0
+                    ? genererEcheancier(credit, premiereEcheance)
+                    : echeancesRestantes(credit, p, premiereEcheance);
+            echeanceRepository.deleteUnpaidByCreditIds(List.of(credit.getId()));
+            echeanceRepository.saveAll(restantes);
+            return restantes;
+        });
+        credit.setEcheances(echeances);
+        return echeances;
+    }
+
+    /**
+     * Régénérer en parallèle les échéanciers de nombreux crédits (ex : changement de taux).
+     * Les échéances payées sont conservées ; les restantes sont recalculées sur le capital
+     * restant dû et le nombre de mois restants, aux conditions actuelles du crédit.
+     * Un crédit dont les échéances payées ne sont pas les premières (paiement dans le désordre)
+     * est laissé inchangé et signalé : sa numérotation ne peut pas reprendre après nbPayees.
+     * @param credits Les crédits à recalculer
+     * @param premiereEcheanceParDefaut Première date pour les crédits sans aucune échéance
+     * @return Nombre d'échéances écrites
+     */
+    public int regenererEcheanciers(List<Credit> credits, LocalDate premiereEcheanceParDefaut) {
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISME);
+        try {
+            List<Future<Integer>> lots = new ArrayList<>();
+            for (int i = 0; i < credits.size(); i += TAILLE_LOT) {
+                List<Credit> lot = credits.subList(i, Math.min(i + TAILLE_LOT, credits.size()));
+                lots.add(executor.submit(() -> regenererLot(lot, premiereEcheanceParDefaut)));
+            }
+            int total = 0;
+            for (Future<Integer> lot : lots) {
+                total += lot.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Régénération des échéanciers interrompue", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur régénération des échéanciers : " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int regenererLot(List<Credit> lot, LocalDate premiereEcheanceParDefaut) {
+        List<Long> ids = new ArrayList<>(lot.size());
+        for (Credit credit : lot) {
+            ids.add(credit.getId());
+        }
+        return UnitOfWork.execute(() -> {
+            Map<Long, EcheancierProgress> progress = echeanceRepository.findProgressByCreditIds(ids);
+            List<Long> recalcules = new ArrayList<>(ids.size());
+            List<Echeance> echeances = new ArrayList<>();
+            for (Credit credit : lot) {
+                EcheancierProgress p = progress.get(credit.getId());
+                if (p != null && !p.isPayeesContigues()) {
+                    System.err.println("Échéancier du crédit " + credit.getId() + " non régénéré : échéances payées non contiguës ("
+                            + p.getNbPayees() + " payées, dernière n° " + p.getDernierNumeroPaye() + ")");
+                    continue;
+                }
+                recalcules.add(credit.getId());
+                echeances.addAll(echeancesRestantes(credit, p, premiereEcheanceParDefaut));
+            }
+            echeanceRepository.deleteUnpaidByCreditIds(recalcules);
+            echeanceRepository.saveAll(echeances);
+            return echeances.size();
+        });
+    }
+
+    /**
+     * Échéances restantes après les nbPayees premières : capital restant dû, mois restants,
+     * numérotation à partir de nbPayees + 1. Vide si le crédit est soldé.
+     */
+    private List<Echeance> echeancesRestantes(Credit credit, EcheancierProgress p, LocalDate premiereEcheanceParDefaut) {
+        int nbPayees = p == null ? 0 : p.getNbPayees();
+        BigDecimal capitalRestant = p == null ? credit.getMontantInitial()
+                : credit.getMontantInitial().subtract(p.getCapitalRembourse());
+        LocalDate premiereDate = p == null ? premiereEcheanceParDefaut : p.getPremiereDatePrevue();
+        int moisRestants = credit.getDureMois() - nbPayees;
+        if (moisRestants <= 0 || capitalRestant.signum() <= 0) {
+            return List.of();
+        }
+        return calculer(credit, capitalRestant, moisRestants, nbPayees + 1, premiereDate.plusMonths(nbPayees));
+    }
+
+    /**
+     * Tableau d'amortissement de nbEcheances mensualités à partir de premierNumero.
+     */
+    private List<Echeance> calculer(Credit credit, BigDecimal capital, int nbEcheances,
+                                    int premierNumero, LocalDate premiereDate) {
+        if (nbEcheances <= 0) {
+            throw new IllegalArgumentException("Durée de crédit invalide : " + nbEcheances);
+        }
+        BigDecimal tauxMensuel = credit.getTaux() == null ? BigDecimal.ZERO
+                : credit.getTaux().divide(MOIS_PAR_AN_POURCENT, MC);
+        boolean degressif = credit.getType() == CreditType.DEGRESSIF;
+
+        BigDecimal mensualite = degressif ? null : mensualiteConstante(capital, tauxMensuel, nbEcheances);
+        BigDecimal capitalConstant = degressif
+                ? capital.divide(BigDecimal.valueOf(nbEcheances), 2, RoundingMode.HALF_UP) : null;
+
+        List<Echeance> echeances = new ArrayList<>(nbEcheances);
+        BigDecimal restant = capital.setScale(2, RoundingMode.HALF_UP);
+        for (int k = 0; k < nbEcheances; k++) {
+            BigDecimal interet = restant.multiply(tauxMensuel, MC).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal principal;
+            if (k == nbEcheances - 1) {
+                principal = restant; // la dernière échéance solde le capital (écarts d'arrondi)
+            } else {
+                principal = degressif ? capitalConstant : mensualite.subtract(interet);
+                if (principal.compareTo(restant) > 0) principal = restant;
+                if (principal.signum() < 0) principal = BigDecimal.ZERO.setScale(2);
+            }
+            restant = restant.subtract(principal);
+            echeances.add(new Echeance(0L, credit, premierNumero + k, premiereDate.plusMonths(k), principal, interet));
+        }
+        return echeances;
+    }
+
+    /**
+     * Mensualité constante : C * r / (1 - (1 + r)^-n), ou C / n si taux nul
+     */
+    private static BigDecimal mensualiteConstante(BigDecimal capital, BigDecimal tauxMensuel, int n) {
+        if (tauxMensuel.signum() == 0) {
+            return capital.divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
+        }
+        BigDecimal facteur = BigDecimal.ONE.add(tauxMensuel).pow(n, MC);
+        return capital.multiply(tauxMensuel, MC).multiply(facteur, MC)
+                .divide(facteur.subtract(BigDecimal.ONE), MC)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+}
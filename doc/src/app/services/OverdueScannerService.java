@@ -0,0 +1,125 @@
+package app.services;
+
+import app.models.Echeance;
+import app.models.Enums.CreditStatus;
+import app.models.OverdueScanReport;
+import app.repositories.CreditRepository;
+import app.repositories.EcheanceRepository;
+import app.repositories.interfaces.CreditInterface;
+import app.repositories.interfaces.EcheanceInterface;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Détection incrémentale des échéances en retard.
+ *
+ * Le scanner garde un watermark : la dernière date d'échéance déjà traitée.
+ * Chaque passage ne lit que les échéances non payées devenues exigibles depuis
+ * (findUpcomingBetween(watermark + 1, hier)), via l'index partiel doc/sql/003.
+ * Le premier passage, sans watermark, reprend tout l'arriéré (findOverdueBefore).
+ * Les crédits concernés passent de ACTIVE à LATE par UPDATE groupés.
+ *
+ * Le watermark est en mémoire : après un redémarrage, passer la dernière date
+ * traitée au constructeur pour ne pas rescanner l'arriéré.
+ */
+public class OverdueScannerService {
+
+    private final EcheanceInterface echeanceRepository;
+    private final CreditInterface creditRepository;
+
+    private LocalDate watermark;
+    private OverdueScanReport dernierRapport;
+    private ScheduledExecutorService scheduler;
+
+    public OverdueScannerService() {
+        this(null);
+    }
+
+    /**
+     * @param watermark Dernière date d'échéance déjà traitée, null pour tout scanner
+     */
+    public OverdueScannerService(LocalDate watermark) {
+        this.echeanceRepository = new EcheanceRepository();
+        this.creditRepository = new CreditRepository();
+        this.watermark = watermark;
+    }
+
+    /**
+     * Scanner les échéances devenues en retard au jour donné.
+     * Une échéance est en retard le lendemain de sa date prévue si elle n'est pas payée
+     * (même règle que Echeance.isEnRetard()).
+     * @param aujourdhui Date de référence
+     * @return Rapport du passage (lignes scannées, crédits passés LATE)
+     */
+    public synchronized OverdueScanReport scan(LocalDate aujourdhui) {
+        long debut = System.nanoTime();
+        LocalDate fin = aujourdhui.minusDays(1);
+        LocalDate depuis = watermark;
+
+        List<Echeance> echues;
+        if (depuis == null) {
+            echues = echeanceRepository.findOverdueBefore(aujourdhui);
+        } else if (depuis.isBefore(fin)) {
+            echues = echeanceRepository.findUpcomingBetween(depuis.plusDays(1), fin);
+        } else {
+            echues = List.of();
+        }
+
+        Set<Long> creditIds = new LinkedHashSet<>();
+        for (Echeance echeance : echues) {
+            creditIds.add(echeance.getCreditIdCompat());
+        }
+        int passes = creditRepository.updateStatus(creditIds, CreditStatus.ACTIVE, CreditStatus.LATE);
+
+        // Watermark avancé seulement après succès : un passage en échec sera rejoué en entier
+        if (depuis == null || depuis.isBefore(fin)) {
+            watermark = fin;
+        }
+        dernierRapport = new OverdueScanReport(depuis, fin, echues.size(), creditIds.size(), passes,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut));
+        return dernierRapport;
+    }
+
+    /**
+     * Lancer le scan périodique en tâche de fond (thread démon).
+     * @param periode Intervalle entre deux passages
+     * @param rapports Reçoit le rapport de chaque passage
+     */
+    public synchronized void start(Duration periode, Consumer<OverdueScanReport> rapports) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Scanner des retards déjà démarré");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "overdue-scanner");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rapports.accept(scan(LocalDate.now()));
+            } catch (RuntimeException e) {
+                // Une exception non rattrapée annulerait les passages suivants
+                System.err.println("Erreur scan des échéances en retard : " + e.getMessage());
+            }
+        }, 0, periode.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public synchronized LocalDate getWatermark() { return watermark; }
+
+    public synchronized OverdueScanReport getDernierRapport() { return dernierRapport; }
+}
@@ -0,0 +1,121 @@
+package app.services;
+
+import app.models.Echeance;
+import app.models.PenaliteAccrualReport;
+import app.repositories.EcheanceRepository;
+import app.repositories.interfaces.EcheanceInterface;
+import app.utils.UnitOfWork;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul nocturne des pénalités de retard sur les échéances non payées.
+ *
+ * Pénalité = (capital + intérêts) × taux journalier × jours de retard à la date métier,
+ * arrondie au centime. La valeur est absolue (jamais un incrément) et la ligne est datée
+ * (penalite_date) : rejouer le job pour la même date ne relit et ne modifie rien.
+ *
+ * Les échéances en retard sont partitionnées par tranches d'IDs de crédit, traitées en
+ * parallèle ; chaque tranche = une lecture + un UPDATE batch + un COMMIT.
+ */
+public class PenaliteAccrualJob {
+
+    // 0,05 % par jour de retard
+    private static final BigDecimal TAUX_JOURNALIER_DEFAUT = new BigDecimal("0.0005");
+    // Borné par la taille du pool de connexions
+    private static final int PARALLELISME = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+    // Plusieurs tranches par thread : une tranche dense ne bloque pas la fin du job
+    private static final int PARTITIONS_PAR_THREAD = 8;
+
+    private final EcheanceInterface echeanceRepository;
+    private final BigDecimal tauxJournalier;
+
+    public PenaliteAccrualJob() {
+        this(TAUX_JOURNALIER_DEFAUT);
+    }
+
+    public PenaliteAccrualJob(BigDecimal tauxJournalier) {
+        this.echeanceRepository = new EcheanceRepository();
+        this.tauxJournalier = tauxJournalier;
+    }
+
+    /**
+     * Calculer les pénalités de toutes les échéances en retard à la date métier.
+     * @param dateMetier Date métier (jours de retard comptés jusqu'à cette date)
+     * @return Rapport : lignes lues, lignes mises à jour, durée, débit
+     */
+    public PenaliteAccrualReport run(LocalDate dateMetier) {
+        long debut = System.nanoTime();
+        long[] bornes = echeanceRepository.findOverdueCreditIdBounds(dateMetier);
+        if (bornes == null) {
+            return new PenaliteAccrualReport(dateMetier, 0, 0, 0, elapsedMs(debut));
+        }
+
+        long etendue = bornes[1] - bornes[0] + 1;
+        long largeur = Math.max(1, (etendue + PARALLELISME * PARTITIONS_PAR_THREAD - 1) / (PARALLELISME * PARTITIONS_PAR_THREAD));
+
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISME);
+        try {
+            List<Future<int[]>> partitions = new ArrayList<>();
+            for (long min = bornes[0]; min <= bornes[1]; min += largeur) {
+                long trancheMin = min;
+                long trancheMax = Math.min(min + largeur - 1, bornes[1]);
+                partitions.add(executor.submit(() -> traiterTranche(dateMetier, trancheMin, trancheMax)));
+            }
+            int lues = 0;
+            int misesAJour = 0;
+            for (Future<int[]> partition : partitions) {
+                int[] resultat = partition.get();
+                lues += resultat[0];
+                misesAJour += resultat[1];
+            }
+            return new PenaliteAccrualReport(dateMetier, partitions.size(), lues, misesAJour, elapsedMs(debut));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Calcul des pénalités interrompu", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur calcul des pénalités : " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Pénalité d'une échéance à la date métier (0 si pas encore en retard).
+     */
+    public BigDecimal calculerPenalite(Echeance echeance, LocalDate dateMetier) {
+        long jours = ChronoUnit.DAYS.between(echeance.getDatePrevue(), dateMetier);
+        if (jours <= 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return echeance.getMontantPrincipal().add(echeance.getInteret())
+                .multiply(tauxJournalier)
+                .multiply(BigDecimal.valueOf(jours))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private int[] traiterTranche(LocalDate dateMetier, long creditIdMin, long creditIdMax) {
+        return UnitOfWork.execute(() -> {
+            List<Echeance> echeances = echeanceRepository.findPenaltyCandidates(dateMetier, creditIdMin, creditIdMax);
+            for (Echeance echeance : echeances) {
+                echeance.setPenalite(calculerPenalite(echeance, dateMetier));
+            }
+            int misesAJour = echeanceRepository.updatePenalites(echeances, dateMetier);
+            return new int[] {echeances.size(), misesAJour};
+        });
+    }
+
+    private static long elapsedMs(long debutNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debutNanos);
+    }
+}
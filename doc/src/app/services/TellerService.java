@@ -2,12 +2,20 @@ package app.services;
 
 import app.models.Enums.*;
 import app.repositories.*;
+import app.repositories.interfaces.AccountInterface;
+import app.repositories.interfaces.CreditInterface;
 import app.models.*;
 import app.models.Enums.CreditStatus;
 import app.models.Enums.CreditType;
+import app.utils.SessionRegistry;
+import app.utils.UnitOfWork;
+import app.utils.ValidationUtils;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.imageio.IIOException;
 
@@ -17,39 +25,52 @@ import javax.imageio.IIOException;
  * 
  * ARCHITECTURE PATTERN : TellerService gère ses propres dépendances
  * - ClientRepository : USE CASES 1,2
- * - AccountRepository : USE CASES 1,2,3,4,5,6
+ * - AccountRepository (derrière CachedAccountRepository) : USE CASES 1,2,3,4,5,6
  * - TransactionRepository : USE CASES 3,4,5 (traçabilité)
- * - CreditRepository : USE CASE 6
+ * - CreditRepository (derrière CountedCreditRepository) : USE CASE 6
  */
 public class TellerService {
 
+    // Statuts comptés dans la limite de 2 crédits en cours par compte
+    private static final Set<CreditStatus> CREDITS_EN_COURS = EnumSet.of(CreditStatus.ACTIVE, CreditStatus.LATE);
+
     // Pattern imposé : Service gère ses dépendances
     private final ClientRepository clientRepository;
-    private final AccountRepository accountRepository;
+    private final AccountInterface accountRepository;
     private final TransactionRepository transactionRepository;
-    private final CreditRepository creditRepository;
+    private final CreditInterface creditRepository;
     private final TrellerRepository trellerRepository;
+    // Chaque cas d'usage prolonge la session du teller (délai d'inactivité)
+    private final SessionRegistry sessions;
 
     public TellerService() {
         this.clientRepository = new ClientRepository();
-        this.accountRepository = new AccountRepository();
+        this.accountRepository = new CachedAccountRepository(new AccountRepository());
         this.transactionRepository = new TransactionRepository();
-        this.creditRepository = new CreditRepository();
+        this.creditRepository = new CountedCreditRepository(new CreditRepository());
         this.trellerRepository = new TrellerRepository();
+        this.sessions = SessionRegistry.getInstance();
     }
 
-    // ✅ Méthode privée réutilisable pour valider un compte
+    // ✅ Méthode privée réutilisable pour valider un compte (une seule requête projetée)
     private Account validateAccount(Long accountId, String context) {
+        checkAccountId(accountId, context);
+        Map<Long, Account> comptes = accountRepository.findByIds(List.of(accountId));
+        return checkAccount(comptes.get(accountId), accountId, context);
+    }
+
+    private void checkAccountId(Long accountId, String context) {
         if (accountId == null || accountId <= 0) {
             throw new IllegalArgumentException("ID " + context + " invalide");
         }
+    }
 
-        Account account = accountRepository.findById(accountId);
-        if (account == null || account.getId() == 0L) {
+    private Account checkAccount(Account account, Long accountId, String context) {
+        if (account == null) {
             throw new IllegalArgumentException("Compte " + context + " introuvable : " + accountId);
         }
 
-        if (!accountRepository.isAccountActive(accountId)) {
+        if (!"Active".equalsIgnoreCase(account.getStatus())) {
             throw new IllegalStateException("Compte " + context + " inactif");
         }
 
@@ -62,7 +83,8 @@ public class TellerService {
      */
     public boolean createClientWithFirstAccount(String nom, String prenom, String email,String telephone, BigDecimal salaire, String typeCompte, BigDecimal soldeInitial)
     {
-        if (clientRepository.findByEmail(email) != null) {
+        sessions.touchCurrent();
+        if (clientRepository.existsByEmail(email)) {
             throw new IllegalArgumentException("Un client avec cet email existe déjà.");
         }
         if(soldeInitial.compareTo(BigDecimal.ZERO) <= 0){
@@ -95,6 +117,7 @@ public class TellerService {
      * VALIDATION : Client existe via findByClientId() + Account.save()
      */
     public boolean createAdditionalAccount(Long clientId, String typeCompte, BigDecimal soldeInitial) {
+        sessions.touchCurrent();
         if (clientId == null || clientId < 0) {
             throw new IllegalArgumentException("ID client invalide.");
         }
@@ -115,9 +138,10 @@ public class TellerService {
 
     /**
      * USE CASE 3 : Effectuer dépôt
-     * LOGIQUE : Account.findById() + updateSolde() + Transaction.save(DEPOSIT)
+     * LOGIQUE : validateAccount() + applyDelta() + Transaction.save(DEPOSIT)
      */
     public boolean makeDeposit(Long accountId, BigDecimal montant) {
+        sessions.touchCurrent();
         if (montant == null) {
             throw new IllegalArgumentException("Le montant est obligatoire.");
         }
@@ -126,22 +150,24 @@ public class TellerService {
         }
 
         try {
-            // Réutilise la méthode centrale de validation
-            Account account = validateAccount(accountId, "compte");
-
-            // Calculer nouveau solde
-            BigDecimal nouveauSolde = (account.getSolde() == null ? BigDecimal.ZERO : account.getSolde()).add(montant);
-
-            // Mettre à jour le solde du compte
-            accountRepository.updateSolde(accountId, nouveauSolde);
-
-            // Créer la transaction et remplir les attributs
-            Transaction tx = new Transaction();
-            tx.setAccountId(accountId);
-            tx.setDateTransaction(LocalDateTime.now());
-            tx.setMontant(montant.setScale(2, java.math.RoundingMode.HALF_UP));
-            tx.setType(TransactionType.DEPOSIT);
-            transactionRepository.save(tx);
+            // Solde + transaction sur une seule connexion, un seul COMMIT
+            UnitOfWork.run(() -> {
+                // Réutilise la méthode centrale de validation
+                validateAccount(accountId, "compte");
+
+                // Mouvement atomique en base (pas de lecture-modification-écriture)
+                if (accountRepository.applyDelta(accountId, montant) == null) {
+                    throw new IllegalStateException("Compte introuvable : " + accountId);
+                }
+
+                // Créer la transaction et remplir les attributs
+                Transaction tx = new Transaction();
+                tx.setAccountId(accountId);
+                tx.setDateTransaction(LocalDateTime.now());
+                tx.setMontant(montant.setScale(2, java.math.RoundingMode.HALF_UP));
+                tx.setType(TransactionType.DEPOSIT);
+                transactionRepository.save(tx);
+            });
             return true;
         } catch (Exception e) {
             throw new RuntimeException("erreur lors make deposit: " + e.getMessage(), e);
@@ -150,10 +176,11 @@ public class TellerService {
 
     /**
      * USE CASE 4 : Effectuer retrait
-     * VALIDATION CRITIQUE : checkSoldeSuffisant() + updateSolde() +
+     * VALIDATION CRITIQUE : applyDelta() refuse le découvert en base +
      * Transaction.save(WITHDRAW)
      */
     public boolean makeWithdrawal(Long accountId, BigDecimal montant) {
+        sessions.touchCurrent();
         if (montant == null) {
             throw new IllegalArgumentException("Le montant est obligatoire.");
         }
@@ -161,20 +188,22 @@ public class TellerService {
             throw new IllegalArgumentException("Le montant doit être positif.");
         }
         try {
-            Account account = validateAccount(accountId, "compte");
-            // Calculer nouveau solde
-            BigDecimal nouveauSolde = (account.getSolde() == null ? BigDecimal.ZERO : account.getSolde()).subtract(montant);
-
-            // Mettre à jour le solde du compte
-            accountRepository.updateSolde(accountId, nouveauSolde);
-
-            // Créer la transaction et remplir les attributs
-            Transaction tx = new Transaction();
-            tx.setAccountId(accountId);
-            tx.setDateTransaction(LocalDateTime.now());
-            tx.setMontant(montant.setScale(2, java.math.RoundingMode.HALF_UP));
-            tx.setType(TransactionType.WITHDRAW);
-            transactionRepository.save(tx);
+            UnitOfWork.run(() -> {
+                validateAccount(accountId, "compte");
+
+                // Débit atomique : refusé en base si le solde deviendrait négatif
+                if (accountRepository.applyDelta(accountId, montant.negate()) == null) {
+                    throw new IllegalStateException(ValidationUtils.ErrorMessages.SOLDE_INSUFFISANT);
+                }
+
+                // Créer la transaction et remplir les attributs
+                Transaction tx = new Transaction();
+                tx.setAccountId(accountId);
+                tx.setDateTransaction(LocalDateTime.now());
+                tx.setMontant(montant.setScale(2, java.math.RoundingMode.HALF_UP));
+                tx.setType(TransactionType.WITHDRAW);
+                transactionRepository.save(tx);
+            });
             return true;
         } catch (Exception e) {
             throw new RuntimeException("erreur lors make withdraw: " + e.getMessage(), e);
@@ -184,12 +213,17 @@ public class TellerService {
 
     /**
      * USE CASE 5 : Virement interne
-     * LOGIQUE COMPLEXE : 2 comptes + validation + 2 updateSolde() + 2
-     * Transaction.save()
+     * LOGIQUE COMPLEXE : 2 comptes + validation + 2 applyDelta() + 2
+     * Transaction.save() dans une seule UnitOfWork (atomique)
      */
     public boolean makeInternalTransfer(Long compteSource, Long compteDestination, BigDecimal montant) {
-        validateAccount(compteSource, "source");
-        validateAccount(compteDestination, "destination");
+        sessions.touchCurrent();
+        checkAccountId(compteSource, "source");
+        checkAccountId(compteDestination, "destination");
+        // Les 2 comptes validés en un seul aller-retour
+        Map<Long, Account> comptes = accountRepository.findByIds(List.of(compteSource, compteDestination));
+        checkAccount(comptes.get(compteSource), compteSource, "source");
+        checkAccount(comptes.get(compteDestination), compteDestination, "destination");
         if (compteSource.equals(compteDestination)) {
             throw new IllegalArgumentException("Les comptes source et destination doivent être différents");
         }
@@ -198,39 +232,56 @@ public class TellerService {
             throw new IllegalArgumentException("Le montant doit être positif");
         }
         try {
-            Account sourceAccount = accountRepository.findById(compteSource);
-            Account destinationAccount = accountRepository.findById(compteDestination);
-
-            BigDecimal SoldeSource = sourceAccount.getSolde().subtract(montant);
-            BigDecimal SoldeDestination = destinationAccount.getSolde().add(montant);
-
-            accountRepository.updateSolde(compteSource, SoldeSource);
-            accountRepository.updateSolde(compteDestination, SoldeDestination);
-
-            Transaction txDebit = new Transaction();
-            txDebit.setAccountId(compteSource);
-            txDebit.setDateTransaction(LocalDateTime.now());
-            txDebit.setMontant(montant.negate());
-            txDebit.setType(TransactionType.TRANSFEROUT);
-            transactionRepository.save(txDebit);
-
-            Transaction txCredit = new Transaction();
-            txCredit.setAccountId(compteDestination);
-            txCredit.setDateTransaction(LocalDateTime.now());
-            txCredit.setMontant(montant.setScale(2, java.math.RoundingMode.HALF_UP));
-            txCredit.setType(TransactionType.TRANSFERIN);
-            transactionRepository.save(txCredit);
+            // Les 2 soldes + les 2 transactions : tout ou rien, un seul COMMIT
+            UnitOfWork.run(() -> {
+                // Verrouillage dans l'ordre des IDs : deux virements croisés ne s'interbloquent pas
+                if (compteSource < compteDestination) {
+                    debiter(compteSource, montant);
+                    crediter(compteDestination, montant);
+                } else {
+                    crediter(compteDestination, montant);
+                    debiter(compteSource, montant);
+                }
+
+                Transaction txDebit = new Transaction();
+                txDebit.setAccountId(compteSource);
+                txDebit.setDateTransaction(LocalDateTime.now());
+                txDebit.setMontant(montant.negate());
+                txDebit.setType(TransactionType.TRANSFEROUT);
+
+                Transaction txCredit = new Transaction();
+                txCredit.setAccountId(compteDestination);
+                txCredit.setDateTransaction(LocalDateTime.now());
+                txCredit.setMontant(montant.setScale(2, java.math.RoundingMode.HALF_UP));
+                txCredit.setType(TransactionType.TRANSFERIN);
+
+                // Les 2 écritures en un seul aller-retour
+                transactionRepository.saveAll(List.of(txDebit, txCredit));
+            });
             return true;
         } catch (Exception e) {
             throw new RuntimeException("erreur lors make debit transfer: " + e.getMessage(), e);
         }
     }
 
+    private void debiter(Long accountId, BigDecimal montant) {
+        if (accountRepository.applyDelta(accountId, montant.negate()) == null) {
+            throw new IllegalStateException(ValidationUtils.ErrorMessages.SOLDE_INSUFFISANT);
+        }
+    }
+
+    private void crediter(Long accountId, BigDecimal montant) {
+        if (accountRepository.applyDelta(accountId, montant) == null) {
+            throw new IllegalStateException("Compte destination introuvable : " + accountId);
+        }
+    }
+
     /**
      * USE CASE 6 : Demande de crédit (SANS TYPE)
      * WORKFLOW : Credit.save() avec STATUS=PENDING → Manager approval
      */
     public boolean requestCredit(Long accountId, BigDecimal montant, BigDecimal taux, int dureeMois, CreditType typeCredit) {
+        sessions.touchCurrent();
         BigDecimal tauxMAx = new BigDecimal(20.00);
         if(accountId == null || accountId <= 0)
             throw new IllegalArgumentException("l'id est null");
@@ -242,29 +293,24 @@ public class TellerService {
             throw new IllegalArgumentException("Dures non accepté");
 
         try {
-            validateAccount(accountId,"credit");
-            if(!accountRepository.isAccountActive(accountId))
-                throw new RuntimeException("this account is not active" + accountId);
+            Account account = validateAccount(accountId,"credit");
             
-            // Vérifier l'éligibilité basée sur le salaire du client
-            List<Client> clients = clientRepository.findAll();
-            Client client = clients.stream()
-                .filter(c -> accountRepository.findByClientId(c.getId()).stream()
-                    .anyMatch(acc -> acc.getId() == accountId))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("Client non trouvé pour ce compte"));
+            // Vérifier l'éligibilité basée sur le salaire du client (propriétaire résolu par jointure)
+            Client client = clientRepository.findByAccountId(accountId);
+            if (client == null)
+                throw new IllegalStateException("Client non trouvé pour ce compte");
             
             if (!isEligibleForCredit(client, montant)) {
                 throw new IllegalArgumentException("Client non éligible pour ce montant de crédit. Salaire insuffisant.");
             }
             
-            List<Credit> creditsClient = creditRepository.findByAccountId(accountId);
-            long nCredit = creditsClient.stream().filter(c -> c.getStatus() == CreditStatus.ACTIVE).count();
+            // Compteurs maintenus par la base : O(1) quel que soit l'historique de crédits du compte
+            // Un crédit en retard (LATE, OverdueScannerService) reste un crédit en cours
+            int nCredit = creditRepository.countByAccountIdAndStatuses(accountId, CREDITS_EN_COURS);
             if(nCredit >= 2)
                 throw new RuntimeException("vous avez plus q'un credit en cour !!" + nCredit);
 
             Credit credit = new Credit();
-            Account account = accountRepository.findById(accountId);
             credit.setAccount(account);
             credit.setMontantInitial(montant);
             credit.setTaux(taux);
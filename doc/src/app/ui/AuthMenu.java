@@ -81,8 +81,12 @@ public class AuthMenu {
             System.out.println("   Email: " + email);
             System.out.println("   Rôle: " + user.getRole());
             
-            // Redirection selon le rôle
-            redirectToRoleDashboard(user);
+            // Redirection selon le rôle, puis fermeture de la session au retour du dashboard
+            try {
+                redirectToRoleDashboard(user);
+            } finally {
+                authController.logout(user.getId());
+            }
             
         } catch (Exception e) {
             System.out.println("❌ Erreur lors de la connexion: " + e.getMessage());
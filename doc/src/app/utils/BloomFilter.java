@@ -0,0 +1,97 @@
+package app.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom de chaînes, thread-safe sans verrou (bits dans un AtomicLongArray).
+ *
+ * - mightContain() == false : la chaîne n'a jamais été ajoutée (certain)
+ * - mightContain() == true : peut-être ajoutée (faux positifs au taux fpp à capacité nominale)
+ * - Pas de suppression : un élément retiré reste "peut-être présent" jusqu'à reconstruction
+ *
+ * Taille : m = -n·ln(fpp) / ln(2)² bits, k = m/n·ln(2) fonctions (double hachage).
+ * Ex : 1 million d'éléments à 1 % ≈ 1,2 Mo, 7 sondes.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long nbBits;
+    private final int nbHash;
+    private final long capacite;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * @param capacite Nombre d'éléments prévus
+     * @param fpp Taux de faux positifs visé à cette capacité (0 < fpp < 1)
+     */
+    public BloomFilter(long capacite, double fpp) {
+        if (capacite <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Paramètres du filtre de Bloom invalides : " + capacite + ", " + fpp);
+        }
+        long m = (long) Math.ceil(-capacite * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.nbBits = (long) words * 64;
+        this.nbHash = Math.max(1, (int) Math.round((double) nbBits / capacite * Math.log(2)));
+        this.capacite = capacite;
+    }
+
+    public void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < nbHash; i++) {
+            long bit = Math.floorMod(h1 + i * h2, nbBits);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (a, b) -> a | b);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < nbHash; i++) {
+            long bit = Math.floorMod(h1 + i * h2, nbBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Nombre d'appels à put() (doublons compris) */
+    public long getInsertions() { return insertions.get(); }
+
+    public long getCapacite() { return capacite; }
+
+    public long getNbBits() { return nbBits; }
+
+    public int getNbHash() { return nbHash; }
+
+    /**
+     * Taux de faux positifs estimé après getInsertions() ajouts : (1 - e^(-k·n/m))^k
+     */
+    public double getTauxFauxPositifs() {
+        return Math.pow(1 - Math.exp(-(double) nbHash * insertions.get() / nbBits), nbHash);
+    }
+
+    // FNV-1a 64 bits sur les caractères, puis mélange (finaliseur de SplitMix64)
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
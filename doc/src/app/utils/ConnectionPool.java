@@ -0,0 +1,350 @@
+package app.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de connexions JDBC borné (min/max) derrière DatabaseConnection.
+ * - Les connexions rendues via close() retournent dans le pool (pas de nouveau handshake TCP/auth)
+ * - Validation à l'emprunt si la connexion est restée inactive trop longtemps
+ * - Éviction des connexions inactives au-delà de la taille minimale
+ * - Timeout d'acquisition et métriques d'attente
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validationIntervalMs;
+    private final int validationTimeoutSec;
+
+    // LIFO : la connexion la plus récemment rendue est la plus "chaude"
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed = false;
+
+    // Métriques
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder waitNanosTotal = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize,
+                          long acquireTimeoutMs, long idleTimeoutMs,
+                          long validationIntervalMs, int validationTimeoutSec) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Tailles du pool invalides : min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        // Pré-remplissage asynchrone puis maintenance périodique
+        long period = Math.max(1000L, Math.min(idleTimeoutMs / 2, 30_000L));
+        evictor.scheduleWithFixedDelay(this::maintain, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Emprunter une connexion. Le close() de la connexion retournée la rend au pool.
+     * @throws SQLException si le pool est fermé, si le timeout d'acquisition est atteint
+     *         ou si la création d'une connexion physique échoue
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pool de connexions fermé");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente de connexion interrompue", e);
+        }
+        long waited = System.nanoTime() - start;
+        waitNanosTotal.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLException("Aucune connexion disponible après " + acquireTimeoutMs + " ms (pool max=" + maxSize + ")");
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    borrowCount.increment();
+                    return pooled.lease();
+                }
+                validationFailures.increment();
+                destroy(pooled);
+            }
+            pooled = create();
+            borrowCount.increment();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            // Validation uniquement si la connexion a dormi : évite un aller-retour à chaque emprunt
+            if (System.currentTimeMillis() - pooled.lastUsedAt > validationIntervalMs) {
+                return pooled.physical.isValid(validationTimeoutSec);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        total.incrementAndGet();
+        created.increment();
+        return new PooledConnection(physical);
+    }
+
+    private void destroy(PooledConnection pooled) {
+        total.decrementAndGet();
+        destroyed.increment();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la fermeture d'une connexion du pool : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rendre une connexion au pool : annule une transaction laissée ouverte et
+     * rétablit l'autocommit pour que l'emprunteur suivant parte d'un état propre.
+     */
+    private void release(PooledConnection pooled) {
+        boolean reusable = !closed;
+        try {
+            if (pooled.physical.isClosed()) {
+                reusable = false;
+            } else if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        if (reusable) {
+            pooled.lastUsedAt = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } else {
+            destroy(pooled);
+        }
+        permits.release();
+    }
+
+    /**
+     * Maintenance périodique : éviction des connexions inactives au-delà de minSize
+     * puis complément jusqu'à minSize.
+     */
+    private void maintain() {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Les plus anciennes sont en fin de deque (LIFO)
+        PooledConnection oldest;
+        while (total.get() > minSize && (oldest = idle.peekLast()) != null
+                && now - oldest.lastUsedAt > idleTimeoutMs) {
+            if (idle.removeLastOccurrence(oldest)) {
+                destroy(oldest);
+            }
+        }
+        while (!closed && total.get() < minSize && permits.tryAcquire()) {
+            try {
+                idle.offerLast(create());
+            } catch (SQLException e) {
+                System.err.println("Erreur de connexion à la base (pré-remplissage du pool) : " + e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Fermer le pool et toutes les connexions inactives.
+     * Les connexions encore empruntées seront fermées à leur restitution.
+     */
+    public void shutdown() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(total.get(), idle.size(), maxSize - permits.availablePermits(),
+                permits.getQueueLength(), borrowCount.sum(), waitNanosTotal.sum(), maxWaitNanos.get(),
+                timeouts.sum(), created.sum(), destroyed.sum(), validationFailures.sum());
+    }
+
+    /**
+     * Connexion physique + horodatage de dernière utilisation.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * Proxy d'un emprunt : close() rend la connexion au pool (une seule fois),
+     * tout appel après restitution est refusé.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned = false;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (returned ? ", rendue" : "") + "]";
+                default:
+                    if (returned) {
+                        throw new SQLException("Connexion déjà rendue au pool");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    /**
+     * Instantané des métriques du pool.
+     */
+    public static final class Stats {
+        private final int total;
+        private final int idle;
+        private final int active;
+        private final int waiting;
+        private final long borrowCount;
+        private final long waitNanosTotal;
+        private final long maxWaitNanos;
+        private final long timeouts;
+        private final long created;
+        private final long destroyed;
+        private final long validationFailures;
+
+        private Stats(int total, int idle, int active, int waiting, long borrowCount, long waitNanosTotal,
+                      long maxWaitNanos, long timeouts, long created, long destroyed, long validationFailures) {
+            this.total = total;
+            this.idle = idle;
+            this.active = active;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.waitNanosTotal = waitNanosTotal;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.validationFailures = validationFailures;
+        }
+
+        public int getTotal() { return total; }
+        public int getIdle() { return idle; }
+        public int getActive() { return active; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTimeouts() { return timeouts; }
+        public long getCreated() { return created; }
+        public long getDestroyed() { return destroyed; }
+        public long getValidationFailures() { return validationFailures; }
+
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0.0 : waitNanosTotal / 1_000_000.0 / borrowCount;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool[total=%d, inactives=%d, actives=%d, en attente=%d, emprunts=%d, "
+                            + "attente moy=%.3f ms, attente max=%.3f ms, timeouts=%d, créées=%d, détruites=%d, "
+                            + "validations échouées=%d]",
+                    total, idle, active, waiting, borrowCount, getAverageWaitMillis(), getMaxWaitMillis(),
+                    timeouts, created, destroyed, validationFailures);
+        }
+    }
+}
@@ -1,37 +1,78 @@
 package app.utils;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static Connection conn = null;
-    private static final String URL = "jdbc:postgresql://localhost:5432/bank_db";
+    private static volatile ConnectionPool pool = null;
+    // reWriteBatchedInserts : les executeBatch() d'INSERT deviennent des INSERT multi-valeurs
+    // prepareThreshold=1 : requête préparée côté serveur dès sa 1re exécution sur une connexion physique
+    // preparedStatementCacheQueries : préparations gardées par connexion physique, réutilisées d'un emprunt
+    //   à l'autre (même texte SQL) ; couvre l'ensemble des requêtes constantes des repositories
+    private static final String URL = "jdbc:postgresql://localhost:5432/bank_db?reWriteBatchedInserts=true"
+            + "&prepareThreshold=1&preparedStatementCacheQueries=512&preparedStatementCacheSizeMiB=5";
     private static final String USER = "root";
     private static final String PASSWORD = "root";
 
+    // Paramètres du pool
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long ACQUIRE_TIMEOUT_MS = 5_000;
+    private static final long IDLE_TIMEOUT_MS = 10 * 60_000;
+    private static final long VALIDATION_INTERVAL_MS = 500;
+    private static final int VALIDATION_TIMEOUT_SEC = 2;
+
+    /**
+     * Emprunte une connexion au pool.
+     * Le close() (try-with-resources) rend la connexion au pool au lieu de la fermer.
+     * Dans une UnitOfWork, retourne la connexion transactionnelle du thread.
+     */
     public static Connection getConnection(){
+        Connection shared = UnitOfWork.currentConnection();
+        if (shared != null) {
+            return shared;
+        }
         try {
-            if (conn == null || conn.isClosed()) {
-                Class.forName("org.postgresql.Driver");
-                conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            }
+            return getPool().borrow();
         } catch (ClassNotFoundException e) {
             System.err.println("Driver PostgreSQL non trouvé : " + e.getMessage());
         } catch (SQLException e) {
             System.err.println("Erreur de connexion à la base : " + e.getMessage());
         }
-        return conn;
+        return null;
+    }
+
+    private static ConnectionPool getPool() throws ClassNotFoundException {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DatabaseConnection.class) {
+                p = pool;
+                if (p == null) {
+                    Class.forName("org.postgresql.Driver");
+                    p = new ConnectionPool(URL, USER, PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                            ACQUIRE_TIMEOUT_MS, IDLE_TIMEOUT_MS, VALIDATION_INTERVAL_MS, VALIDATION_TIMEOUT_SEC);
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Métriques du pool (taille, attente, timeouts...) ou null si le pool n'est pas encore créé.
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        ConnectionPool p = pool;
+        return p == null ? null : p.getStats();
     }
-    
+
     public static void closeConnection() {
-        try {
-            if (conn != null && !conn.isClosed()) {
-                conn.close();
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
                 System.out.println("Connexion fermée");
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la fermeture : " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,217 @@
+package app.utils;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitation des tentatives de connexion, par email et par source, avant tout accès à la base.
+ *
+ * - Un seau à jetons par clé : capacité = rafale autorisée, puis un jeton toutes les N ms
+ * - Seau sans verrou : état (horodatage + jetons) dans un seul AtomicLong, mis à jour par CAS
+ * - Map bornée : un seau redevenu plein équivaut à un seau neuf, il est retiré à la purge.
+ *   Si la map reste pleine (ex : flot d'emails aléatoires), les nouvelles clés partagent
+ *   un seau de débordement : la mémoire reste bornée et le flot reste limité.
+ *   Au plus une purge par intervalle de recharge : sous ce flot, une tentative ne paie pas
+ *   un parcours de la map (un seau ne redevient plein qu'après au moins une recharge)
+ * - Compteurs : tentatives acceptées, refusées par email, par source, passées par le débordement
+ *
+ * Coût mesuré (doc/check/app/utils/LoginRateLimiterBench, 100 000 clés, machine 1 cœur) :
+ * - tentative permise, clé déjà connue : 480 à 730 ns (défauts de cache sur les 2 seaux)
+ * - tentative sur map pleine (débordement) : 230 à 270 ns
+ * - première tentative d'une clé : 2,5 à 3 µs (2 seaux et 2 entrées de map créés),
+ *   au-dessus de l'objectif de 1 µs ; reste négligeable devant la vérification PBKDF2
+ */
+public class LoginRateLimiter {
+
+    // 5 tentatives d'affilée par email, puis 1 toutes les 12 s (5/min)
+    private static final int EMAIL_CAPACITE = 5;
+    private static final long EMAIL_RECHARGE_MS = 12_000;
+    // 20 tentatives d'affilée par source, puis 1 toutes les 3 s (20/min)
+    private static final int SOURCE_CAPACITE = 20;
+    private static final long SOURCE_RECHARGE_MS = 3_000;
+    private static final int DEFAULT_MAX_CLES = 100_000;
+
+    private static volatile LoginRateLimiter instance = null;
+
+    private final Limiter parEmail;
+    private final Limiter parSource;
+    // Origine de l'horloge : horodatages relatifs, tiennent sur 40 bits
+    private final long origineNanos = System.nanoTime();
+
+    private final LongAdder acceptees = new LongAdder();
+    private final LongAdder refuseesEmail = new LongAdder();
+    private final LongAdder refuseesSource = new LongAdder();
+
+    /**
+     * Limiteur partagé de l'application.
+     */
+    public static LoginRateLimiter getInstance() {
+        LoginRateLimiter l = instance;
+        if (l == null) {
+            synchronized (LoginRateLimiter.class) {
+                l = instance;
+                if (l == null) {
+                    l = new LoginRateLimiter(EMAIL_CAPACITE, EMAIL_RECHARGE_MS, SOURCE_CAPACITE, SOURCE_RECHARGE_MS, DEFAULT_MAX_CLES);
+                    instance = l;
+                }
+            }
+        }
+        return l;
+    }
+
+    public LoginRateLimiter(int emailCapacite, long emailRechargeMs, int sourceCapacite, long sourceRechargeMs, int maxCles) {
+        this.parEmail = new Limiter(emailCapacite, emailRechargeMs, maxCles);
+        this.parSource = new Limiter(sourceCapacite, sourceRechargeMs, maxCles);
+    }
+
+    /**
+     * Consommer une tentative pour cet email et cette source.
+     * @return false si l'une des deux limites est atteinte (ne pas interroger la base)
+     */
+    public boolean tryAcquire(String email, String source) {
+        long now = nowMillis();
+        if (!parSource.tryAcquire(source == null ? "" : source, now)) {
+            refuseesSource.increment();
+            return false;
+        }
+        if (!parEmail.tryAcquire(email == null ? "" : email.trim().toLowerCase(Locale.ROOT), now)) {
+            refuseesEmail.increment();
+            return false;
+        }
+        acceptees.increment();
+        return true;
+    }
+
+    public long getAcceptees() { return acceptees.sum(); }
+
+    public long getRefuseesEmail() { return refuseesEmail.sum(); }
+
+    public long getRefuseesSource() { return refuseesSource.sum(); }
+
+    public long getDebordements() { return parEmail.debordements.sum() + parSource.debordements.sum(); }
+
+    public int getCles() { return parEmail.seaux.size() + parSource.seaux.size(); }
+
+    @Override
+    public String toString() {
+        return "LoginRateLimiter{acceptées=" + getAcceptees() + ", refusées email=" + getRefuseesEmail()
+                + ", refusées source=" + getRefuseesSource() + ", débordements=" + getDebordements()
+                + ", clés=" + getCles() + "}";
+    }
+
+    private long nowMillis() {
+        return (System.nanoTime() - origineNanos) / 1_000_000;
+    }
+
+    /**
+     * Seaux d'une dimension (email ou source), map bornée.
+     */
+    private static final class Limiter {
+        private final int capacite;
+        private final long rechargeMs;
+        private final int maxCles;
+        private final ConcurrentHashMap<String, Bucket> seaux = new ConcurrentHashMap<>();
+        private final Bucket debordement;
+        // Horodatage de la dernière purge (ms) : une purge par intervalle de recharge au plus
+        private final AtomicLong dernierePurge;
+        private final LongAdder debordements = new LongAdder();
+
+        Limiter(int capacite, long rechargeMs, int maxCles) {
+            if (capacite <= 0 || capacite > Bucket.MAX_CAPACITE || rechargeMs <= 0 || maxCles <= 0) {
+                throw new IllegalArgumentException("Paramètres de limitation invalides");
+            }
+            this.capacite = capacite;
+            this.rechargeMs = rechargeMs;
+            this.maxCles = maxCles;
+            this.dernierePurge = new AtomicLong(-rechargeMs);
+            // Débordement : rafale de capacite × 10, même recharge
+            this.debordement = new Bucket(Math.min(capacite * 10, Bucket.MAX_CAPACITE), rechargeMs, 0);
+        }
+
+        boolean tryAcquire(String cle, long now) {
+            Bucket bucket = seaux.get(cle);
+            if (bucket == null) {
+                if (seaux.size() >= maxCles) {
+                    purge(now);
+                }
+                if (seaux.size() >= maxCles) {
+                    debordements.increment();
+                    return debordement.tryConsume(now);
+                }
+                bucket = seaux.computeIfAbsent(cle, k -> new Bucket(capacite, rechargeMs, now));
+            }
+            return bucket.tryConsume(now);
+        }
+
+        /**
+         * Retirer les seaux pleins (aucune information perdue). Un seul thread purge,
+         * et au plus une fois par intervalle de recharge : entre deux, la map pleine déborde.
+         */
+        private void purge(long now) {
+            long derniere = dernierePurge.get();
+            if (now - derniere < rechargeMs || !dernierePurge.compareAndSet(derniere, now)) {
+                return;
+            }
+            for (Iterator<Map.Entry<String, Bucket>> it = seaux.entrySet().iterator(); it.hasNext(); ) {
+                if (it.next().getValue().isFull(now)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Seau à jetons sans verrou. État : bits 63..24 = horodatage (ms), bits 23..0 = millièmes de jeton.
+     */
+    private static final class Bucket {
+        static final int MAX_CAPACITE = ((1 << 24) - 1) / 1000;
+        private static final long MASQUE_JETONS = (1L << 24) - 1;
+        private static final long JETON = 1000;
+
+        private final long capaciteMilli;
+        private final long rechargeMs;
+        private final AtomicLong state;
+
+        Bucket(int capacite, long rechargeMs, long now) {
+            this.capaciteMilli = capacite * JETON;
+            this.rechargeMs = rechargeMs;
+            this.state = new AtomicLong(pack(now, capaciteMilli));
+        }
+
+        boolean tryConsume(long now) {
+            while (true) {
+                long s = state.get();
+                long jetons = refill(s, now);
+                if (jetons < JETON) {
+                    return false;
+                }
+                if (state.compareAndSet(s, pack(Math.max(now, s >>> 24), jetons - JETON))) {
+                    return true;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return refill(state.get(), now) >= capaciteMilli;
+        }
+
+        private long refill(long s, long now) {
+            long ecoule = now - (s >>> 24);
+            long jetons = s & MASQUE_JETONS;
+            if (ecoule <= 0) {
+                return jetons;
+            }
+            // ecoule borné : pas de débordement de la multiplication après une longue inactivité
+            long recharge = Math.min(ecoule, rechargeMs * (capaciteMilli / JETON + 1)) * JETON / rechargeMs;
+            return Math.min(capaciteMilli, jetons + recharge);
+        }
+
+        private static long pack(long now, long jetonsMilli) {
+            return (now << 24) | jetonsMilli;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package app.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Cache mémoire borné : éviction LRU au-delà de maxSize, expiration par TTL.
+ * Compteurs hits / misses / évictions / expirations pour dimensionner le cache en production.
+ * Thread-safe (verrou unique : les sections critiques sont très courtes).
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public LruCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Taille de cache invalide : " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        // accessOrder = true : l'itération part de l'entrée la moins récemment utilisée
+        this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return La valeur en cache, ou null si absente ou expirée
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(ttlMillis)) {
+            map.remove(key);
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value));
+    }
+
+    /**
+     * @return La valeur retirée (même expirée), ou null si absente
+     */
+    public synchronized V remove(K key) {
+        Entry<V> entry = map.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Retirer toutes les entrées satisfaisant le prédicat (parcours complet, réservé aux invalidations).
+     */
+    public synchronized void removeIf(BiPredicate<K, V> predicate) {
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (predicate.test(e.getKey(), e.getValue().value)) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(size(), maxSize, hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt = System.currentTimeMillis();
+
+        private Entry(V value) {
+            this.value = value;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return ttlMillis > 0 && System.currentTimeMillis() - createdAt > ttlMillis;
+        }
+    }
+
+    /**
+     * Instantané des compteurs du cache.
+     */
+    public static final class Stats {
+        private final int size;
+        private final int maxSize;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+
+        private Stats(int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public int getSize() { return size; }
+        public int getMaxSize() { return maxSize; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Cache[taille=%d/%d, hits=%d, misses=%d, ratio=%.2f, évictions=%d, expirations=%d]",
+                    size, maxSize, hits, misses, getHitRatio(), evictions, expirations);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package app.utils;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Hachage des mots de passe (PBKDF2-HMAC-SHA256, sel aléatoire par mot de passe).
+ *
+ * Format stocké : pbkdf2-sha256$<itérations>$<sel base64>$<hash base64>
+ * - Le nombre d'itérations est stocké avec le hash : il peut être relevé sans invalider
+ *   les anciens mots de passe (needsRehash() à la connexion suivante)
+ * - Une valeur sans préfixe est un mot de passe historique en clair : verify() l'accepte
+ *   (comparaison à temps constant) et needsRehash() demande sa conversion
+ *
+ * Coût : ~ un hash par vérification ; à 210 000 itérations, de l'ordre de 10 connexions/s par cœur
+ * (mesure : doc/check/app/utils/PasswordHasherBench).
+ * Sans état mutable partagé : utilisable depuis plusieurs threads.
+ */
+public final class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    public static final int DEFAULT_ITERATIONS = 210_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Nombre d'itérations invalide : " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Hacher un mot de passe avec un nouveau sel.
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    /**
+     * Vérifier un mot de passe contre la valeur stockée (hash ou ancien mot de passe en clair).
+     * @return false si la valeur stockée est absente ou mal formée
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            if (storedIterations < 1) {
+                return false;
+            }
+            return MessageDigest.isEqual(pbkdf2(password, salt, storedIterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true si la valeur stockée est en clair ou hachée avec moins d'itérations qu'actuellement
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || !isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " indisponible", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package app.utils;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vérification des mots de passe sur un pool dédié et borné.
+ *
+ * Un hash PBKDF2 occupe un cœur plusieurs dizaines de millisecondes : sans borne, un pic de
+ * connexions saturerait la machine et toutes les connexions ralentiraient ensemble.
+ * - Un thread par cœur, file d'attente bornée : au-delà, la connexion est refusée tout de suite
+ * - Au plus MAX_EN_COURS_PAR_EMAIL vérifications simultanées pour un même email
+ * - Un email inconnu est vérifié contre un hash factice : même coût, pas d'indice sur l'existence du compte
+ * - Rien n'est mis en cache : ni mot de passe, ni résultat de vérification
+ * - Hash à convertir (clair ou itérations insuffisantes) : le nouveau hash est calculé dans la même tâche
+ */
+public class PasswordVerifier {
+
+    private static final int DEFAULT_QUEUE_DEPTH = 64;
+    private static final int MAX_EN_COURS_PAR_EMAIL = 1;
+    private static final long DEFAULT_TIMEOUT_MS = 10_000;
+
+    private static volatile PasswordVerifier instance = null;
+
+    /**
+     * Résultat d'une vérification ; nouveauHash non null si la valeur stockée doit être remplacée.
+     */
+    public static final class Result {
+        private final boolean valide;
+        private final String nouveauHash;
+
+        private Result(boolean valide, String nouveauHash) {
+            this.valide = valide;
+            this.nouveauHash = nouveauHash;
+        }
+
+        public boolean isValide() { return valide; }
+
+        public String getNouveauHash() { return nouveauHash; }
+    }
+
+    private final PasswordHasher hasher;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final String hashFactice;
+    // Vérifications en cours par email ; l'entrée disparaît à 0 (merge/computeIfPresent atomiques par clé)
+    private final ConcurrentHashMap<String, Integer> enCoursParEmail = new ConcurrentHashMap<>();
+
+    private final AtomicLong verifications = new AtomicLong();
+    private final AtomicLong refusFile = new AtomicLong();
+    private final AtomicLong refusEmail = new AtomicLong();
+
+    /**
+     * Vérificateur partagé de l'application (un thread par cœur).
+     */
+    public static PasswordVerifier getInstance() {
+        PasswordVerifier v = instance;
+        if (v == null) {
+            synchronized (PasswordVerifier.class) {
+                v = instance;
+                if (v == null) {
+                    v = new PasswordVerifier(new PasswordHasher(), Runtime.getRuntime().availableProcessors(),
+                            DEFAULT_QUEUE_DEPTH, DEFAULT_TIMEOUT_MS);
+                    instance = v;
+                }
+            }
+        }
+        return v;
+    }
+
+    public PasswordVerifier(PasswordHasher hasher, int threads, int queueDepth, long timeoutMs) {
+        if (threads <= 0 || queueDepth <= 0 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("Paramètres du pool de vérification invalides");
+        }
+        this.hasher = hasher;
+        this.timeoutMs = timeoutMs;
+        this.hashFactice = hasher.hash(Long.toHexString(System.nanoTime()));
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueDepth), r -> {
+                    Thread t = new Thread(r, "password-verifier-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Vérifier un mot de passe (bloquant, au plus timeoutMs).
+     * @param stored Valeur stockée, null si l'email est inconnu (résultat toujours invalide)
+     * @throws IllegalStateException si le pool est saturé, si une vérification est déjà en cours
+     *         pour cet email, ou si le délai est dépassé
+     */
+    public Result verify(String email, String password, String stored) {
+        String cle = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        if (enCoursParEmail.merge(cle, 1, Integer::sum) > MAX_EN_COURS_PAR_EMAIL) {
+            release(cle);
+            refusEmail.incrementAndGet();
+            throw new IllegalStateException("Connexion déjà en cours pour ce compte, réessayez");
+        }
+        try {
+            Future<Result> future;
+            try {
+                future = executor.submit(() -> check(password, stored));
+            } catch (RejectedExecutionException e) {
+                refusFile.incrementAndGet();
+                throw new IllegalStateException("Trop de connexions en cours, réessayez dans quelques instants");
+            }
+            try {
+                return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new IllegalStateException("Délai de vérification du mot de passe dépassé");
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Vérification du mot de passe interrompue", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Erreur vérification du mot de passe : " + e.getCause().getMessage(), e.getCause());
+            }
+        } finally {
+            release(cle);
+        }
+    }
+
+    private Result check(String password, String stored) {
+        verifications.incrementAndGet();
+        if (stored == null) {
+            hasher.verify(password, hashFactice);
+            return new Result(false, null);
+        }
+        if (!hasher.verify(password, stored)) {
+            return new Result(false, null);
+        }
+        return new Result(true, hasher.needsRehash(stored) ? hasher.hash(password) : null);
+    }
+
+    private void release(String cle) {
+        enCoursParEmail.computeIfPresent(cle, (k, n) -> n <= 1 ? null : n - 1);
+    }
+
+    public long getVerifications() { return verifications.get(); }
+
+    public long getRefusFile() { return refusFile.get(); }
+
+    public long getRefusEmail() { return refusEmail.get(); }
+
+    public int getFileEnAttente() { return executor.getQueue().size(); }
+}
@@ -0,0 +1,79 @@
+package app.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * Agrégat incrémental d'une série de montants : nombre, somme, min, max, moyenne, variance.
+ *
+ * - add() en O(1) (algorithme de Welford, stable numériquement, sans garder les valeurs)
+ * - merge() combine un agrégat calculé ailleurs (ex : COUNT/AVG/VAR_POP en SQL)
+ *   avec la formule de Chan : le résultat est celui de la série complète
+ * - Somme, min et max restent exacts (BigDecimal) ; moyenne et variance en double
+ *
+ * Thread-safe ; copy() donne une vue cohérente de tous les champs.
+ */
+public final class RunningStats {
+
+    private long count;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private BigDecimal min;
+    private BigDecimal max;
+    private double mean;
+    private double m2; // Somme des carrés des écarts à la moyenne
+
+    public synchronized void add(BigDecimal value) {
+        count++;
+        sum = sum.add(value);
+        if (min == null || value.compareTo(min) < 0) min = value;
+        if (max == null || value.compareTo(max) > 0) max = value;
+        double x = value.doubleValue();
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    /**
+     * Fusionner un agrégat partiel (variance de population).
+     */
+    public synchronized void merge(long n, BigDecimal sum, BigDecimal min, BigDecimal max, double mean, double variance) {
+        if (n <= 0) {
+            return;
+        }
+        long total = count + n;
+        double delta = mean - this.mean;
+        this.m2 += variance * n + delta * delta * ((double) count * n / total);
+        this.mean += delta * n / total;
+        this.count = total;
+        this.sum = this.sum.add(sum);
+        if (min != null && (this.min == null || min.compareTo(this.min) < 0)) this.min = min;
+        if (max != null && (this.max == null || max.compareTo(this.max) > 0)) this.max = max;
+    }
+
+    public synchronized RunningStats copy() {
+        RunningStats copy = new RunningStats();
+        copy.count = count;
+        copy.sum = sum;
+        copy.min = min;
+        copy.max = max;
+        copy.mean = mean;
+        copy.m2 = m2;
+        return copy;
+    }
+
+    public synchronized long getCount() { return count; }
+
+    public synchronized BigDecimal getSum() { return sum; }
+
+    public synchronized BigDecimal getMin() { return min; }
+
+    public synchronized BigDecimal getMax() { return max; }
+
+    public synchronized double getMean() { return mean; }
+
+    /**
+     * Variance de population (m2 / n), 0 si moins de 2 valeurs.
+     */
+    public synchronized double getVariance() {
+        return count < 2 ? 0.0 : m2 / count;
+    }
+}
@@ -0,0 +1,246 @@
+package app.utils;
+
+import app.models.Session;
+import app.models.User;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sessions des utilisateurs connectés, en mémoire.
+ *
+ * Remplace la colonne users.logged_in : "qui est connecté" ne demande plus de requête,
+ * et plusieurs tellers connectés en même temps ont chacun leur session.
+ * - Jeton aléatoire (SecureRandom, 256 bits) par connexion ; une nouvelle connexion remplace
+ *   la session précédente du même utilisateur
+ * - Lecture O(1) (ConcurrentHashMap), sans accès base
+ * - Expiration après inactivité : vérifiée à chaque lecture, et purge périodique en tâche de fond
+ * - Session courante liée au thread (bind/unbind), comme UnitOfWork
+ *
+ * Exemple :
+ *   Session session = SessionRegistry.getInstance().open(user);
+ *   SessionRegistry.getInstance().bind(session.getToken());
+ *   ...
+ *   Treller treller = trellerRepository.getConnectTreller(); // lit la session du thread
+ */
+public class SessionRegistry {
+
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    private static final long PURGE_INTERVAL_SEC = 60;
+    private static final int TOKEN_BYTES = 32;
+
+    private static volatile SessionRegistry instance = null;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Jeton de la session active de chaque utilisateur
+    private final Map<Long, String> tokensByUser = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> currentToken = new ThreadLocal<>();
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final long idleTimeoutNanos;
+    private ScheduledExecutorService purger;
+
+    /**
+     * Registre partagé de l'application ; la purge des sessions expirées démarre avec lui.
+     */
+    public static SessionRegistry getInstance() {
+        SessionRegistry r = instance;
+        if (r == null) {
+            synchronized (SessionRegistry.class) {
+                r = instance;
+                if (r == null) {
+                    r = new SessionRegistry(DEFAULT_IDLE_TIMEOUT);
+                    r.startPurge();
+                    instance = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    public SessionRegistry(Duration idleTimeout) {
+        if (idleTimeout == null || idleTimeout.isZero() || idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("Délai d'inactivité invalide : " + idleTimeout);
+        }
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * Ouvrir une session pour un utilisateur authentifié.
+     * Le mot de passe n'est pas conservé dans la session.
+     * @return Nouvelle session ; l'éventuelle session précédente de l'utilisateur est fermée
+     */
+    public Session open(User user) {
+        if (user == null || user.getId() <= 0) {
+            throw new IllegalArgumentException("Utilisateur invalide pour la session");
+        }
+        User copie = new User(user.getId(), user.getFullName(), user.getRole(), user.getEmail(), null);
+        copie.setLoggedIn(true);
+        Session session = new Session(newToken(), copie, Instant.now(), System.nanoTime());
+        sessions.put(session.getToken(), session);
+        String precedent = tokensByUser.put(copie.getId(), session.getToken());
+        if (precedent != null) {
+            sessions.remove(precedent);
+        }
+        return session;
+    }
+
+    /**
+     * Session valide pour ce jeton (et prolongée), null si inconnue ou expirée.
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (isExpired(session, now)) {
+            remove(session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    /**
+     * Fermer une session (déconnexion). Sans effet si le jeton est inconnu.
+     */
+    public void close(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        if (session != null) {
+            remove(session);
+        }
+        if (token != null && token.equals(currentToken.get())) {
+            currentToken.remove();
+        }
+    }
+
+    /**
+     * Fermer la session active d'un utilisateur, s'il en a une.
+     */
+    public void closeUser(long userId) {
+        String token = tokensByUser.get(userId);
+        if (token != null) {
+            close(token);
+        }
+    }
+
+    public boolean isActive(long userId) {
+        return get(tokensByUser.get(userId)) != null;
+    }
+
+    // ===== Session courante (liée au thread) =====
+
+    /**
+     * Lier une session au thread courant.
+     * @return Session liée, null si le jeton est inconnu ou expiré (rien n'est lié)
+     */
+    public Session bind(String token) {
+        Session session = get(token);
+        if (session == null) {
+            currentToken.remove();
+            return null;
+        }
+        currentToken.set(token);
+        return session;
+    }
+
+    public void unbind() {
+        currentToken.remove();
+    }
+
+    /**
+     * Session du thread courant, null si aucune ou si elle a expiré / été fermée entre-temps.
+     */
+    public Session current() {
+        String token = currentToken.get();
+        if (token == null) {
+            return null;
+        }
+        Session session = get(token);
+        if (session == null) {
+            currentToken.remove();
+        }
+        return session;
+    }
+
+    /**
+     * Prolonger la session du thread courant : à appeler à chaque opération, même celles
+     * qui ne lisent pas l'utilisateur, pour que le délai d'inactivité mesure l'inactivité réelle.
+     * @return false si aucune session valide n'est liée au thread
+     */
+    public boolean touchCurrent() {
+        return current() != null;
+    }
+
+    public User currentUser() {
+        Session session = current();
+        return session == null ? null : session.getUser();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Retirer les sessions inactives depuis plus que le délai.
+     * @return Nombre de sessions expirées retirées
+     */
+    public int purgeExpired() {
+        long now = System.nanoTime();
+        int purged = 0;
+        for (Iterator<Session> it = sessions.values().iterator(); it.hasNext(); ) {
+            Session session = it.next();
+            if (isExpired(session, now)) {
+                it.remove();
+                tokensByUser.remove(session.getUserId(), session.getToken());
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private synchronized void startPurge() {
+        if (purger != null) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        purger.scheduleWithFixedDelay(() -> {
+            try {
+                purgeExpired();
+            } catch (RuntimeException e) {
+                System.err.println("Purge des sessions : " + e.getMessage());
+            }
+        }, PURGE_INTERVAL_SEC, PURGE_INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+
+    private boolean isExpired(Session session, long nowNanos) {
+        return nowNanos - session.getDernierAccesNanos() > idleTimeoutNanos;
+    }
+
+    private void remove(Session session) {
+        sessions.remove(session.getToken(), session);
+        tokensByUser.remove(session.getUserId(), session.getToken());
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return encoder.encodeToString(bytes);
+    }
+}
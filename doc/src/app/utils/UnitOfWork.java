@@ -0,0 +1,174 @@
+package app.utils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Unité de travail transactionnelle liée au thread courant.
+ *
+ * Pendant execute()/run(), tous les appels DatabaseConnection.getConnection() du thread
+ * reçoivent la MÊME connexion (autocommit désactivé) : les repositories n'ont rien à changer,
+ * leur try-with-resources ne ferme pas la connexion partagée.
+ * Un seul COMMIT à la fin, ROLLBACK si une exception remonte.
+ * Les appels imbriqués rejoignent la transaction englobante.
+ *
+ * Exemple :
+ *   UnitOfWork.run(() -> {
+ *       accountRepository.updateSolde(source, soldeSource);
+ *       accountRepository.updateSolde(destination, soldeDestination);
+ *   });
+ */
+public final class UnitOfWork {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private UnitOfWork() {}
+
+    /**
+     * Exécuter un traitement dans une transaction unique et retourner son résultat.
+     * @throws RuntimeException si le traitement échoue (après ROLLBACK) ou si le COMMIT échoue
+     */
+    public static <T> T execute(Supplier<T> work) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            // Transaction englobante : on la rejoint
+            try {
+                return work.get();
+            } catch (RuntimeException | Error e) {
+                scope.rollbackOnly = true;
+                throw e;
+            }
+        }
+
+        Connection conn = DatabaseConnection.getConnection();
+        if (conn == null) {
+            throw new RuntimeException("Impossible d'obtenir une connexion pour la transaction");
+        }
+        scope = new Scope(conn);
+        CURRENT.set(scope);
+        try {
+            conn.setAutoCommit(false);
+            T result = work.get();
+            if (scope.rollbackOnly) {
+                conn.rollback();
+                throw new RuntimeException("Transaction annulée : une opération imbriquée a échoué");
+            }
+            conn.commit();
+            CURRENT.remove();
+            runAfterCommit(scope);
+            return result;
+        } catch (SQLException e) {
+            rollbackQuietly(conn);
+            throw new RuntimeException("Erreur lors de la validation de la transaction : " + e.getMessage(), e);
+        } catch (RuntimeException | Error e) {
+            rollbackQuietly(conn);
+            throw e;
+        } finally {
+            CURRENT.remove();
+            try {
+                conn.close(); // rend la connexion au pool (autocommit rétabli)
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la restitution de la connexion : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Variante sans résultat de execute().
+     */
+    public static void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Exécuter une action après le COMMIT de l'unité de travail courante
+     * (immédiatement si aucune n'est active). Ignorée en cas de ROLLBACK.
+     * Utile pour invalider des caches une fois les données réellement visibles.
+     */
+    public static void afterCommit(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            action.run();
+        } else {
+            scope.afterCommit.add(action);
+        }
+    }
+
+    /**
+     * @return true si le thread courant est dans une unité de travail
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Connexion de l'unité de travail courante, protégée contre close(), ou null si aucune.
+     * Utilisée par DatabaseConnection.getConnection().
+     */
+    static Connection currentConnection() {
+        Scope scope = CURRENT.get();
+        return scope == null ? null : scope.shared;
+    }
+
+    private static void runAfterCommit(Scope scope) {
+        for (Runnable action : scope.afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // La transaction est validée : un échec ici ne doit pas la faire paraître annulée
+                System.err.println("Erreur dans une action post-commit : " + e.getMessage());
+            }
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'annulation de la transaction : " + e.getMessage());
+        }
+    }
+
+    private static final class Scope {
+        private final Connection shared;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private boolean rollbackOnly = false;
+
+        private Scope(Connection conn) {
+            this.shared = nonClosing(conn);
+        }
+    }
+
+    /**
+     * Vue de la connexion où close() est sans effet : c'est l'unité de travail qui la rend au pool.
+     */
+    private static Connection nonClosing(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            try {
+                                return method.invoke(conn, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+}
@@ -0,0 +1,45 @@
+package app.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur d'UUID ordonnés dans le temps (format UUIDv7, RFC 9562).
+ *
+ * Disposition : 48 bits timestamp Unix (ms) | version 7 | 12 bits compteur | variante | 62 bits aléatoires.
+ * Les IDs successifs sont croissants : les INSERT arrivent en fin de B-tree de la clé primaire
+ * au lieu de se disperser sur toutes les pages comme avec UUID.randomUUID() (v4).
+ *
+ * Monotone et sans verrou : l'état (timestamp << 12 | compteur) est avancé par CAS.
+ * Si le compteur déborde dans la même milliseconde, le timestamp avance d'une unité.
+ */
+public final class UuidV7 {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    // Le compteur démarre au hasard dans la moitié basse pour garder de la marge avant débordement
+    private static final int COUNTER_START_BOUND = 1 << (COUNTER_BITS - 1);
+
+    private static final AtomicLong STATE = new AtomicLong();
+
+    private UuidV7() {}
+
+    public static UUID generate() {
+        long next;
+        long prev;
+        do {
+            prev = STATE.get();
+            long fresh = (System.currentTimeMillis() << COUNTER_BITS)
+                    | ThreadLocalRandom.current().nextInt(COUNTER_START_BOUND);
+            // Horloge identique ou reculée : on incrémente l'état précédent
+            next = fresh > prev ? fresh : prev + 1;
+        } while (!STATE.compareAndSet(prev, next));
+
+        long timestamp = next >>> COUNTER_BITS;
+        long counter = next & COUNTER_MASK;
+        long msb = (timestamp << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}